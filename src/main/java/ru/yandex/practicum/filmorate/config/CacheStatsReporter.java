@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.utils.CacheStats;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class CacheStatsReporter {
+    final List<CacheStats> caches;
+
+    @Scheduled(initialDelayString = "${filmorate.cache.stats-interval:PT5M}",
+               fixedDelayString = "${filmorate.cache.stats-interval:PT5M}")
+    public void report() {
+        caches.forEach(CacheStats::logStats);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Два пула соединений к одной базе: основной и пул только для чтения. Соединение берется из пула
+ * только для чтения внутри транзакций с readOnly = true, остальные запросы идут в основной пул.
+ */
+@Configuration
+public class DataSourceConfig {
+    // Рекомендация Hikari: (ядра * 2) + 1
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 PoolMetrics poolMetrics,
+                                 @Value("${filmorate.datasource.pool-size:0}") int poolSize,
+                                 @Value("${filmorate.datasource.connection-timeout-ms:5000}") long connectionTimeoutMs) {
+        int size = poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+        HikariDataSource writePool = createPool(properties, "filmorate-write", size, false, connectionTimeoutMs, poolMetrics);
+        HikariDataSource readPool = createPool(properties, "filmorate-read", size, true, connectionTimeoutMs, poolMetrics);
+        return new ReadWriteDataSource(writePool, readPool);
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, String poolName, int size,
+                                               boolean readOnly, long connectionTimeoutMs, PoolMetrics poolMetrics) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(properties.determineUrl());
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setReadOnly(readOnly);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(poolMetrics);
+        return new HikariDataSource(config);
+    }
+
+    static class ReadWriteDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+        private final HikariDataSource writePool;
+        private final HikariDataSource readPool;
+
+        ReadWriteDataSource(HikariDataSource writePool, HikariDataSource readPool) {
+            super(writePool);
+            setReadOnlyDataSource(readPool);
+            this.writePool = writePool;
+            this.readPool = readPool;
+        }
+
+        @Override
+        public void close() {
+            readPool.close();
+            writePool.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики пулов соединений: занятые и свободные соединения, потоки в ожидании и время получения соединения.
+ * Текущее состояние пулов также доступно по JMX через MBean-ы Hikari.
+ */
+@Slf4j
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.datasource.metrics-interval:PT1M}",
+               fixedDelayString = "${filmorate.datasource.metrics-interval:PT1M}")
+    public void report() {
+        trackers.forEach((poolName, tracker) -> {
+            long acquired = tracker.acquired.sumThenReset();
+            long waitNanos = tracker.waitNanos.sumThenReset();
+            long maxWaitNanos = tracker.maxWaitNanos.getThenReset();
+            log.info("Пул {}: активных {}, свободных {}, всего {}, ожидают {}, выдано {}, "
+                            + "среднее ожидание {} мкс, максимальное {} мкс, таймаутов {}",
+                    poolName,
+                    tracker.poolStats.getActiveConnections(),
+                    tracker.poolStats.getIdleConnections(),
+                    tracker.poolStats.getTotalConnections(),
+                    tracker.poolStats.getPendingThreads(),
+                    acquired,
+                    acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos / acquired),
+                    TimeUnit.NANOSECONDS.toMicros(maxWaitNanos),
+                    tracker.timeouts.sumThenReset());
+        });
+    }
+
+    private static class Tracker implements IMetricsTracker {
+        private final PoolStats poolStats;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder timeouts = new LongAdder();
+
+        Tracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquired.increment();
+            waitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSuggestion;
 import ru.yandex.practicum.filmorate.model.SearchBy;
 import ru.yandex.practicum.filmorate.model.SortBy;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.utils.JsonArrayStreamer;
 
 import java.util.*;
 
@@ -20,13 +26,48 @@ import java.util.*;
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Единственная точка получения списка: все фильмов, страница после afterId или потоковая выгрузка.
+     * Сочетания параметров проверяются здесь, чтобы запрос не попал молча в другой режим.
+     */
     @GetMapping
+    public ResponseEntity<StreamingResponseBody> find(@RequestParam(required = false) Long afterId,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(defaultValue = "false") boolean stream) {
+        if (stream) {
+            if (afterId != null || limit != null) {
+                log.error("Потоковая выгрузка запрошена вместе с параметрами страницы");
+                throw new ValidationException("stream", "Потоковая выгрузка не совмещается с параметрами afterId и limit");
+            }
+            return streamAll();
+        }
+        List<Film> films = afterId == null && limit == null
+                ? findAll()
+                : findPage(afterId == null ? 0 : afterId, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreamer.stream(objectMapper, films::forEach));
+    }
+
     public List<Film> findAll() {
         log.info("Запрос на получение всех фильмов");
         return filmService.findAll();
     }
 
+    public List<Film> findPage(long afterId, Integer limit) {
+        log.info("Запрос на получение {} фильмов после id = {}", limit, afterId);
+        return filmService.findPage(afterId, limit);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Запрос на потоковое получение всех фильмов");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreamer.stream(objectMapper, filmService::forEachFilm));
+    }
+
     @GetMapping("/{id}")
     public Film findById(@PathVariable Long id) {
         log.info("Запрос на получение фильма с id = {}", id);
@@ -94,4 +135,9 @@ public class FilmController {
     public List<Film> search(@RequestParam String query,  @RequestParam(name = "by") SearchBy[] by) {
         return filmService.search(query, by);
     }
+
+    @GetMapping("/search/suggest")
+    public List<FilmSuggestion> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return filmService.suggest(prefix, limit);
+    }
 }
\ No newline at end of file
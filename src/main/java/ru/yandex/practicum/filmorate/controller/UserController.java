@@ -1,9 +1,11 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,13 +15,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.RecommendationMode;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.event.Event;
 import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.utils.JsonArrayStreamer;
 
 import java.util.List;
 
@@ -30,13 +37,48 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
     private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Единственная точка получения списка: все пользователей, страница после afterId или потоковая выгрузка.
+     * Сочетания параметров проверяются здесь, чтобы запрос не попал молча в другой режим.
+     */
     @GetMapping
+    public ResponseEntity<StreamingResponseBody> find(@RequestParam(required = false) Long afterId,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(defaultValue = "false") boolean stream) {
+        if (stream) {
+            if (afterId != null || limit != null) {
+                log.error("Потоковая выгрузка запрошена вместе с параметрами страницы");
+                throw new ValidationException("stream", "Потоковая выгрузка не совмещается с параметрами afterId и limit");
+            }
+            return streamAll();
+        }
+        List<User> users = afterId == null && limit == null
+                ? findAll()
+                : findPage(afterId == null ? 0 : afterId, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreamer.stream(objectMapper, users::forEach));
+    }
+
     public List<User> findAll() {
         log.info("Запрос на получение всех пользователей");
         return userService.findAll();
     }
 
+    public List<User> findPage(long afterId, Integer limit) {
+        log.info("Запрос на получение {} пользователей после id = {}", limit, afterId);
+        return userService.findPage(afterId, limit);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Запрос на потоковое получение всех пользователей");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonArrayStreamer.stream(objectMapper, userService::forEachUser));
+    }
+
     @GetMapping("/{id}")
     public User findById(@PathVariable Long id) {
         log.info("Запрос на получение пользователя с id = {}", id);
@@ -95,8 +137,10 @@ public class UserController {
     }
 
     @GetMapping("/{id}/recommendations")
-    public List<Film> getRecommendations(@PathVariable Long id) {
+    public List<Film> getRecommendations(@PathVariable Long id,
+                                         @RequestParam(defaultValue = "MOST_SIMILAR") RecommendationMode mode,
+                                         @RequestParam(required = false) Integer limit) {
         log.info("Запрос на получение рекомендаций для пользователя с id = {}", id);
-        return recommendationService.getRecommendations(id);
+        return recommendationService.getRecommendations(id, mode, limit);
     }
 }
\ No newline at end of file
@@ -40,8 +40,7 @@ public class DirectorService {
             throw new ConditionsNotMetException("Id должен быть указан");
         }
 
-        Optional<Director> directorOptional = directorStorage.getById(director.getId());
-        directorOptional.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, director.getId())));
+        checkExists(director.getId());
 
         Director currentDirector = directorStorage.update(director);
         log.info("Режиссер обновлен");
@@ -50,9 +49,14 @@ public class DirectorService {
     }
 
     public void delete(Long id) {
-        Optional<Director> director = directorStorage.getById(id);
-        director.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
+        checkExists(id);
         directorStorage.delete(id);
     }
 
+    private void checkExists(Long id) {
+        if (!directorStorage.existsById(id)) {
+            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        }
+    }
+
 }
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -21,6 +22,8 @@ import ru.yandex.practicum.filmorate.utils.DataUtils;
 import ru.yandex.practicum.filmorate.model.SortBy;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -28,6 +31,7 @@ import java.util.*;
 public class FilmService {
 
     static final String NOT_FOUND_MESSAGE = "Фильм с id = %s не найден";
+    static final int MAX_SUGGESTIONS = 50;
     final FilmStorage filmStorage;
     final UserStorage userStorage;
     final MPARatingStorage mpaRatingStorage;
@@ -36,15 +40,35 @@ public class FilmService {
     final EventStorage eventStorage;
     final DirectorStorage directorStorage;
 
+    @Transactional(readOnly = true)
     public List<Film> findAll() {
         return filmStorage.getAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<Film> findPage(long afterId, Integer limit) {
+        if (limit == null) {
+            log.error("Не указан размер страницы");
+            throw new ValidationException("limit", "Размер страницы должен быть указан");
+        }
+        if (limit <= 0) {
+            log.error("Некорректный размер страницы: {}", limit);
+            throw new ValidationException("limit", "Размер страницы должен быть положительным");
+        }
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    public void forEachFilm(Consumer<Film> action) {
+        filmStorage.forEach(action);
+    }
+
+    @Transactional(readOnly = true)
     public Film findById(Long id) {
         Optional<Film> film = filmStorage.getById(id);
         return film.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
     }
 
+    @Transactional
     public Film create(Film film) {
         validate(film);
         Film createdFilm = filmStorage.create(film);
@@ -53,40 +77,50 @@ public class FilmService {
         return createdFilm;
     }
 
+    @Transactional
     public Film update(Film film) {
         if (film.getId() == null) {
             log.error("Не указан id фильма");
             throw new ConditionsNotMetException("Id должен быть указан");
         }
 
-        Optional<Film> filmOptional = filmStorage.getById(film.getId());
-        filmOptional.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, film.getId())));
+        checkExists(film.getId());
         validate(film);
         Film currentFilm = filmStorage.update(film);
         log.info("Фильм успешно обновлен");
         return currentFilm;
     }
 
+    @Transactional
     public void addLike(Long id, Long userId) {
-        Optional<Film> film = filmStorage.getById(id);
-        film.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
-        Optional<User> user = userStorage.getById(userId);
-        user.orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        checkExists(id);
+        checkUserExists(userId);
         likeStorage.create(userId, id);
         log.info("Пользователь с id = {} поставил лайк фильму с id = {}", userId, id);
         eventStorage.create(userId, id, EventType.LIKE, EventOperation.ADD);
     }
 
+    @Transactional
     public void removeLike(Long id, Long userId) {
-        Optional<Film> film = filmStorage.getById(id);
-        film.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
-        Optional<User> user = userStorage.getById(userId);
-        user.orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        checkExists(id);
+        checkUserExists(userId);
         likeStorage.remove(userId, id);
         log.info("Пользователь с id = {} убрал лайк с фильма с id = {}", userId, id);
         eventStorage.create(userId, id, EventType.LIKE, EventOperation.REMOVE);
     }
 
+    public void checkExists(Long id) {
+        if (!filmStorage.existsById(id)) {
+            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        }
+    }
+
+    private void checkUserExists(Long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id = " + userId + " не найден");
+        }
+    }
+
     private void validate(Film film) throws DuplicatedDataException, ValidationException {
         Optional<Film> filmOptional = filmStorage.findDuplicate(film);
         if (filmOptional.isPresent() && !filmOptional.get().getId().equals(film.getId())) {
@@ -114,8 +148,11 @@ public class FilmService {
 
         if (!film.getGenres().isEmpty()) {
             film.setGenres(film.getGenres().stream().distinct().toList());
+            Set<Long> foundGenreIds = genreStorage.getByIds(film.getGenres().stream().map(Genre::getId).toList()).stream()
+                    .map(Genre::getId)
+                    .collect(Collectors.toSet());
             List<Genre> absentGenres = film.getGenres().stream()
-                    .filter(g -> genreStorage.getById(g.getId()).isEmpty())
+                    .filter(g -> !foundGenreIds.contains(g.getId()))
                     .toList();
             if (!absentGenres.isEmpty()) {
                 log.error("Фильм содержит жанры, которых нет в базе c id = {}", absentGenres);
@@ -129,8 +166,11 @@ public class FilmService {
 
         if (!film.getDirectors().isEmpty()) {
             film.setDirectors(film.getDirectors().stream().distinct().toList());
+            Set<Long> foundDirectorIds = directorStorage.getByIds(film.getDirectors().stream().map(Director::getId).toList()).stream()
+                    .map(Director::getId)
+                    .collect(Collectors.toSet());
             List<Director> absentDirectors = film.getDirectors().stream()
-                    .filter(d -> directorStorage.getById(d.getId()).isEmpty())
+                    .filter(d -> !foundDirectorIds.contains(d.getId()))
                     .toList();
             if (!absentDirectors.isEmpty()) {
                 log.error("Фильм содержит режиссеров, которых нет в базе c id = {}", absentDirectors);
@@ -139,32 +179,47 @@ public class FilmService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Film> findPopular(Integer count, Integer year, Long genreId) {
         return filmStorage.findPopular(count, year, genreId);
     }
 
+    @Transactional(readOnly = true)
     public List<Film> findCommon(Long userId, Long friendId) {
-        Optional<User> user = userStorage.getById(userId);
-        user.orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
-        Optional<User> friend = userStorage.getById(friendId);
-        friend.orElseThrow(() -> new NotFoundException("Пользователь с id = " + friendId + " не найден"));
+        checkUserExists(userId);
+        checkUserExists(friendId);
         return filmStorage.getCommon(userId, friendId);
     }
 
+    @Transactional
     public void deleteFilm(long filmId) {
-        Optional<Film> film = filmStorage.getById(filmId);
-        film.orElseThrow(() -> new NotFoundException("Фильм с id = " + filmId + " не найден"));
+        checkExists(filmId);
+        likeStorage.removeByFilmId(filmId);
         filmStorage.delete(filmId);
     }
 
+    @Transactional(readOnly = true)
     public List<Film> findByDirector(Long directorId, SortBy sortBy) {
-        Optional<Director> director = directorStorage.getById(directorId);
-        director.orElseThrow(() -> new NotFoundException("Режиссер с id = " + directorId + " не найден"));
+        if (!directorStorage.existsById(directorId)) {
+            throw new NotFoundException("Режиссер с id = " + directorId + " не найден");
+        }
         return filmStorage.getByDirector(directorId, sortBy);
     }
 
+    @Transactional(readOnly = true)
     public List<Film> search(String query, SearchBy[] by) {
         return filmStorage.search(query, by);
     }
+
+    public List<FilmSuggestion> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            log.error("Некорректное количество подсказок: {}", limit);
+            throw new ValidationException("limit", "Количество подсказок должно быть от 1 до " + MAX_SUGGESTIONS);
+        }
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        return filmStorage.suggest(prefix.stripLeading(), limit);
+    }
 }
 
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.RecommendationMode;
+import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecommendationRefresher {
+    private static final int BATCH_SIZE = 64;
+
+    private final LikeStorage likeStorage;
+    private final RecommendationService recommendationService;
+    private final RecommendationStore recommendationStore;
+
+    @Scheduled(initialDelayString = "${filmorate.recommendations.initial-delay:PT1M}",
+               fixedDelayString = "${filmorate.recommendations.refresh-interval:PT5M}")
+    public void refresh() {
+        // Снимок, посчитанный по неполному индексу, отдавался бы до следующего пересчета
+        if (!likeStorage.isIndexReady()) {
+            log.info("Индекс лайков еще не загружен, пересчет рекомендаций пропущен");
+            return;
+        }
+        Instant startedAt = Instant.now();
+        long[] userIds = likeStorage.findLikingUserIds();
+        Map<Long, long[][]> filmIdsByUserId = new ConcurrentHashMap<>(userIds.length);
+        ForkJoinPool.commonPool().invoke(new RefreshTask(userIds, 0, userIds.length, filmIdsByUserId));
+        recommendationStore.publish(filmIdsByUserId, startedAt);
+        log.info("Рекомендации пересчитаны для {} пользователей за {} мс",
+                userIds.length, Duration.between(startedAt, Instant.now()).toMillis());
+    }
+
+    private class RefreshTask extends RecursiveAction {
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+        private final Map<Long, long[][]> filmIdsByUserId;
+
+        RefreshTask(long[] userIds, int from, int to, Map<Long, long[][]> filmIdsByUserId) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.filmIdsByUserId = filmIdsByUserId;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RefreshTask(userIds, from, middle, filmIdsByUserId),
+                        new RefreshTask(userIds, middle, to, filmIdsByUserId));
+                return;
+            }
+            RecommendationMode[] modes = RecommendationMode.values();
+            for (int i = from; i < to; i++) {
+                long[][] filmIds = new long[modes.length][];
+                for (RecommendationMode mode : modes) {
+                    filmIds[mode.ordinal()] = recommendationService.computeFilmIds(userIds[i], mode);
+                }
+                filmIdsByUserId.put(userIds[i], filmIds);
+            }
+        }
+    }
+}
@@ -4,80 +4,155 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.RecommendationMode;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.likes.LikeIndex;
 import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.utils.LongDoubleHashMap;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.function.LongFunction;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RecommendationService {
+    static final int NEIGHBOURS_COUNT = 20;
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
     private final LikeStorage likeStorage;
+    private final RecommendationStore recommendationStore;
 
     public List<Film> getRecommendations(Long userId) {
-        userStorage.getById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
-
-        List<Like> allLikes = likeStorage.findAll();
-        Map<Long, Integer> similarUsers = findSimilarUsers(userId, allLikes);
+        return getRecommendations(userId, RecommendationMode.MOST_SIMILAR, null);
+    }
 
-        Long mostSimilarUserId = similarUsers.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+    public List<Film> getRecommendations(Long userId, RecommendationMode mode, Integer limit) {
+        userStorage.getById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
+        if (limit != null && limit <= 0) {
+            log.error("Некорректное количество рекомендаций: {}", limit);
+            throw new ValidationException("limit", "Количество рекомендаций должно быть положительным");
+        }
 
-        if (mostSimilarUserId == null) {
-            log.info("Не найдены похожие пользователи для id = {}", userId);
-            return Collections.emptyList();
+        Likes likes = likes();
+        long[] userFilmIds = likes.filmIds(userId);
+        // Предрасчитанный список мог устареть относительно собственных лайков пользователя
+        long[] filmIds = recommendationStore.find(userId, mode)
+                .map(precomputed -> Arrays.stream(precomputed)
+                        .filter(filmId -> Arrays.binarySearch(userFilmIds, filmId) < 0)
+                        .toArray())
+                .orElseGet(() -> computeFilmIds(likes, userId, userFilmIds, mode));
+        if (limit != null && filmIds.length > limit) {
+            filmIds = Arrays.copyOf(filmIds, limit);
         }
 
-        List<Film> recommendations = getRecommendedFilms(userId, mostSimilarUserId, allLikes);
+        List<Film> recommendations = filmStorage.getByIds(Arrays.stream(filmIds).boxed().toList());
         log.info("Найдено {} рекомендаций для пользователя с id = {}", recommendations.size(), userId);
         return recommendations;
     }
 
-    private Map<Long, Integer> findSimilarUsers(Long userId, List<Like> allLikes) {
-        Set<Long> userLikes = allLikes.stream()
-                .filter(like -> like.getUserId().equals(userId))
-                .map(Like::getFilmId)
-                .collect(Collectors.toSet());
-
-        Map<Long, Integer> similarUsers = new HashMap<>();
-        allLikes.stream()
-                .filter(like -> !like.getUserId().equals(userId))
-                .forEach(like -> {
-                    if (userLikes.contains(like.getFilmId())) {
-                        similarUsers.merge(like.getUserId(), 1, Integer::sum);
-                    }
-                });
-
-        return similarUsers;
+    public long[] computeFilmIds(long userId, RecommendationMode mode) {
+        Likes likes = likes();
+        return computeFilmIds(likes, userId, likes.filmIds(userId), mode);
+    }
+
+    /**
+     * Лайки из индекса в памяти, а пока он не загружен — снимок всех лайков из БД,
+     * иначе после старта рекомендации считались бы по неполным данным.
+     */
+    private Likes likes() {
+        if (likeStorage.isIndexReady()) {
+            return new Likes(likeStorage::findFilmIdsByUserId, likeStorage::findUserIdsByFilmId);
+        }
+        log.warn("Индекс лайков еще не загружен, рекомендации считаются по лайкам из БД");
+        LikeIndex snapshot = new LikeIndex();
+        likeStorage.findAll().forEach(like -> snapshot.add(like.getUserId(), like.getFilmId()));
+        return new Likes(snapshot::findFilmIds, snapshot::findUserIds);
+    }
+
+    private long[] computeFilmIds(Likes likes, long userId, long[] userFilmIds, RecommendationMode mode) {
+        LongDoubleHashMap overlaps = countOverlaps(likes, userId, userFilmIds);
+        if (overlaps.size() == 0) {
+            log.debug("Не найдены похожие пользователи для id = {}", userId);
+            return new long[0];
+        }
+        return switch (mode) {
+            case MOST_SIMILAR -> LikeIndex.difference(likes.filmIds(findMostSimilarUser(overlaps)), userFilmIds);
+            case WEIGHTED -> rankByNeighbours(likes, userFilmIds, overlaps);
+        };
+    }
+
+    // Пересечения считаются только по пользователям, лайкнувшим те же фильмы, что и userId
+    private LongDoubleHashMap countOverlaps(Likes likes, long userId, long[] userFilmIds) {
+        LongDoubleHashMap overlaps = new LongDoubleHashMap();
+        for (long filmId : userFilmIds) {
+            for (long otherUserId : likes.userIds(filmId)) {
+                if (otherUserId != userId) {
+                    overlaps.addTo(otherUserId, 1);
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private long findMostSimilarUser(LongDoubleHashMap overlaps) {
+        long[] mostSimilarUserId = {Long.MAX_VALUE};
+        double[] maxOverlap = {0};
+        overlaps.forEach((otherUserId, overlap) -> {
+            if (overlap > maxOverlap[0] || overlap == maxOverlap[0] && otherUserId < mostSimilarUserId[0]) {
+                mostSimilarUserId[0] = otherUserId;
+                maxOverlap[0] = overlap;
+            }
+        });
+        return mostSimilarUserId[0];
+    }
+
+    // Фильмы ранжируются по сумме коэффициентов Жаккара ближайших соседей, которые их лайкнули
+    private long[] rankByNeighbours(Likes likes, long[] userFilmIds, LongDoubleHashMap overlaps) {
+        PriorityQueue<Scored> neighbours = new PriorityQueue<>(Scored.ORDER.reversed());
+        overlaps.forEach((otherUserId, overlap) -> {
+            double union = userFilmIds.length + likes.filmIds(otherUserId).length - overlap;
+            neighbours.add(new Scored(otherUserId, overlap / union));
+            if (neighbours.size() > NEIGHBOURS_COUNT) {
+                neighbours.poll();
+            }
+        });
+
+        LongDoubleHashMap scores = new LongDoubleHashMap();
+        for (Scored neighbour : neighbours) {
+            for (long filmId : LikeIndex.difference(likes.filmIds(neighbour.id()), userFilmIds)) {
+                scores.addTo(filmId, neighbour.score());
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(scores.size());
+        scores.forEach((filmId, score) -> ranked.add(new Scored(filmId, score)));
+        ranked.sort(Scored.ORDER);
+        return ranked.stream().mapToLong(Scored::id).toArray();
+    }
+
+    private record Likes(LongFunction<long[]> filmIdsByUserId, LongFunction<long[]> userIdsByFilmId) {
+        long[] filmIds(long userId) {
+            return filmIdsByUserId.apply(userId);
+        }
+
+        long[] userIds(long filmId) {
+            return userIdsByFilmId.apply(filmId);
+        }
     }
 
-    private List<Film> getRecommendedFilms(Long userId, Long similarUserId, List<Like> allLikes) {
-        Set<Long> userLikedFilms = allLikes.stream()
-                .filter(like -> like.getUserId().equals(userId))
-                .map(Like::getFilmId)
-                .collect(Collectors.toSet());
-
-        return allLikes.stream()
-                .filter(like -> like.getUserId().equals(similarUserId))
-                .map(Like::getFilmId)
-                .filter(filmId -> !userLikedFilms.contains(filmId))
-                .distinct()
-                .map(filmId -> filmStorage.getById(filmId).orElse(null))
-                .filter(Objects::nonNull)
-                .toList();
+    private record Scored(long id, double score) {
+        static final Comparator<Scored> ORDER = Comparator.comparingDouble(Scored::score)
+                .reversed()
+                .thenComparingLong(Scored::id);
     }
-}
\ No newline at end of file
+}
@@ -26,7 +26,7 @@ public class ReviewService {
 
     public List<Review> findAll(Long filmId, int count) {
         if (filmId != null) {
-            filmService.findById(filmId);
+            filmService.checkExists(filmId);
         }
         return reviewStorage.getAll(filmId, count);
     }
@@ -51,8 +51,7 @@ public class ReviewService {
             throw new ConditionsNotMetException("Id должен быть указан");
         }
 
-        Optional<Review> reviewOptional = reviewStorage.getById(review.getReviewId());
-        reviewOptional.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, review.getReviewId())));
+        checkExists(review.getReviewId());
         validateReview(review);
         Review updatedReview = reviewStorage.update(review);
         log.info("Отзыв обновлен");
@@ -68,35 +67,41 @@ public class ReviewService {
     }
 
     public void addLike(Long id, Long userId) {
-        findById(id);
-        userService.findById(userId);
+        checkExists(id);
+        userService.checkExists(userId);
         reviewStorage.addLike(id, userId);
         log.info("Пользователь с id = {} поставил лайк отзыву с id = {}", userId, id);
     }
 
     public void addDislike(Long id, Long userId) {
-        findById(id);
-        userService.findById(userId);
+        checkExists(id);
+        userService.checkExists(userId);
         reviewStorage.addDislike(id, userId);
         log.info("Пользователь с id = {} поставил дизлайк отзыву с id = {}", userId, id);
     }
 
     public void removeLike(Long id, Long userId) {
-        findById(id);
-        userService.findById(userId);
+        checkExists(id);
+        userService.checkExists(userId);
         reviewStorage.removeLike(id, userId);
         log.info("Пользователь с id = {} удалил лайк с отзыва с id = {}", userId, id);
     }
 
     public void removeDislike(Long id, Long userId) {
-        findById(id);
-        userService.findById(userId);
+        checkExists(id);
+        userService.checkExists(userId);
         reviewStorage.removeDislike(id, userId);
         log.info("Пользователь с id = {} удалил дизлайк с отзыва с id = {}", userId, id);
     }
 
     private void validateReview(Review review) {
-        userService.findById(review.getUserId());
-        filmService.findById(review.getFilmId());
+        userService.checkExists(review.getUserId());
+        filmService.checkExists(review.getFilmId());
+    }
+
+    private void checkExists(Long id) {
+        if (!reviewStorage.existsById(id)) {
+            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        }
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -13,10 +14,12 @@ import ru.yandex.practicum.filmorate.model.event.EventOperation;
 import ru.yandex.practicum.filmorate.model.event.EventType;
 import ru.yandex.practicum.filmorate.storage.event.EventStorage;
 import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -26,11 +29,31 @@ public class UserService {
     final UserStorage userStorage;
     final FriendshipStorage friendshipStorage;
     final EventStorage eventStorage;
+    final LikeStorage likeStorage;
 
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return userStorage.getAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<User> findPage(long afterId, Integer limit) {
+        if (limit == null) {
+            log.error("Не указан размер страницы");
+            throw new ValidationException("limit", "Размер страницы должен быть указан");
+        }
+        if (limit <= 0) {
+            log.error("Некорректный размер страницы: {}", limit);
+            throw new ValidationException("limit", "Размер страницы должен быть положительным");
+        }
+        return userStorage.getPage(afterId, limit);
+    }
+
+    public void forEachUser(Consumer<User> action) {
+        userStorage.forEach(action);
+    }
+
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         Optional<User> user = userStorage.getById(id);
         return user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
@@ -55,8 +78,7 @@ public class UserService {
             throw new ConditionsNotMetException("Id должен быть указан");
         }
 
-        Optional<User> userOptional = userStorage.getById(user.getId());
-        userOptional.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, user.getId())));
+        checkExists(user.getId());
 
         validate(user);
         if (user.getName() == null || user.getName().isBlank()) {
@@ -71,46 +93,47 @@ public class UserService {
         return currentUser;
     }
 
+    @Transactional(readOnly = true)
     public List<User> findFriends(Long id) {
-        Optional<User> user = userStorage.getById(id);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
+        checkExists(id);
         return userStorage.findFriendsById(id);
     }
 
     public void addFriend(Long id, Long friendId) {
-        Optional<User> user = userStorage.getById(id);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
-        Optional<User> friend = userStorage.getById(friendId);
-        friend.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, friendId)));
+        checkExists(id);
+        checkExists(friendId);
         friendshipStorage.create(id, friendId);
         log.info("Пользователь с id = {} добавил друга с id = {}", id, friendId);
         eventStorage.create(id, friendId, EventType.FRIEND, EventOperation.ADD);
     }
 
     public void removeFriend(Long id, Long friendId) {
-        Optional<User> user = userStorage.getById(id);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
-        Optional<User> friend = userStorage.getById(friendId);
-        friend.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, friendId)));
+        checkExists(id);
+        checkExists(friendId);
         friendshipStorage.remove(id, friendId);
         log.info("Пользователь с id = {} удалил друга с id = {}", id, friendId);
         eventStorage.create(id, friendId, EventType.FRIEND, EventOperation.REMOVE);
     }
 
+    @Transactional(readOnly = true)
     public List<User> findCommonFriends(Long id, Long otherId) {
-        Optional<User> user = userStorage.getById(id);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
-        Optional<User> otherUser = userStorage.getById(otherId);
-        otherUser.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, otherId)));
+        checkExists(id);
+        checkExists(otherId);
         return userStorage.findCommonFriends(id, otherId);
     }
 
+    @Transactional(readOnly = true)
     public List<Event> findFeed(Long id) {
-        Optional<User> user = userStorage.getById(id);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, id)));
+        checkExists(id);
         return eventStorage.findByUserId(id);
     }
 
+    public void checkExists(Long id) {
+        if (!userStorage.existsById(id)) {
+            throw new NotFoundException(String.format(NOT_FOUND_MESSAGE, id));
+        }
+    }
+
     private void validate(User user) throws DuplicatedDataException {
         Optional<User> userByEmail = userStorage.getByEmail(user.getEmail());
         if (userByEmail.isPresent() && !userByEmail.get().getId().equals(user.getId())) {
@@ -130,9 +153,10 @@ public class UserService {
         }
     }
 
+    @Transactional
     public void deleteUser(long userId) {
-        Optional<User> user = userStorage.getById(userId);
-        user.orElseThrow(() -> new NotFoundException(String.format(NOT_FOUND_MESSAGE, userId)));
+        checkExists(userId);
+        likeStorage.removeByUserId(userId);
         userStorage.delete(userId);
     }
 }
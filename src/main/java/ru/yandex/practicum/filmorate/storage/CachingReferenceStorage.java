@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.utils.CacheStats;
+import ru.yandex.practicum.filmorate.utils.ReferenceCache;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Основа хранилищ справочников с кэшем: после старта приложения справочник целиком загружается в кэш.
+ */
+public abstract class CachingReferenceStorage<T> implements CacheStats {
+    protected final ReferenceCache<T> cache;
+
+    protected CachingReferenceStorage(String name, ToLongFunction<T> idGetter) {
+        this.cache = new ReferenceCache<>(name, idGetter);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        List<T> all = loadAll();
+        cache.load(all);
+        afterPreload(all);
+    }
+
+    @Override
+    public void logStats() {
+        cache.logStats();
+    }
+
+    protected abstract List<T> loadAll();
+
+    protected void afterPreload(List<T> all) {
+    }
+}
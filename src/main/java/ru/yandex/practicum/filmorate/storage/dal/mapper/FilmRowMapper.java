@@ -2,50 +2,36 @@ package ru.yandex.practicum.filmorate.storage.dal.mapper;
 
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
-import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MPARating;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.*;
-import java.util.stream.IntStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
 
 @Component
 public class FilmRowMapper implements RowMapper<Film> {
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int RELEASE_DATE = 4;
+    private static final int DURATION = 5;
+    private static final int MPA_ID = 6;
+    private static final int MPA_NAME = 7;
+
     @Override
     public Film mapRow(ResultSet resultSet, int rowNum) throws SQLException {
-        List<String> genreIds = resultSet.getString("genre_ids") != null
-                                ? List.of(resultSet.getString("genre_ids").split(", "))
-                                : new ArrayList<>();
-
-        List<String> genreNames = resultSet.getString("genre_names") != null
-                                ? List.of(resultSet.getString("genre_names").split(", "))
-                                : new ArrayList<>();
-
-        Set<Genre> genres = new HashSet<>();
-        IntStream.range(0, genreIds.size()).forEach(i -> genres.add(Genre.builder().id(Long.parseLong(genreIds.get(i))).name(genreNames.get(i)).build()));
-
-        List<String> directorIds = resultSet.getString("director_ids") != null
-                ? List.of(resultSet.getString("director_ids").split(", "))
-                : new ArrayList<>();
-
-        List<String> directorNames = resultSet.getString("director_names") != null
-                ? List.of(resultSet.getString("director_names").split(", "))
-                : new ArrayList<>();
-        Set<Director> directors = new HashSet<>();
-        IntStream.range(0, directorIds.size()).forEach(i -> directors.add(Director.builder().id(Long.parseLong(directorIds.get(i))).name(directorNames.get(i)).build()));
-
+        // Жанры и режиссеры догружаются отдельными запросами в FilmRepository
         return Film.builder()
-                .id(resultSet.getLong("id"))
-                .name(resultSet.getString("name"))
-                .description(resultSet.getString("description"))
-                .duration(resultSet.getInt("duration"))
-                .releaseDate(resultSet.getDate("release_date").toLocalDate())
-                .mpa(MPARating.builder().id(resultSet.getLong("mpa_rating")).name(resultSet.getString("mpa_name")).build())
-                .genres(new ArrayList<>(genres))
-                .directors(new ArrayList<>(directors))
+                .id(resultSet.getLong(ID))
+                .name(resultSet.getString(NAME))
+                .description(resultSet.getString(DESCRIPTION))
+                .duration(resultSet.getInt(DURATION))
+                .releaseDate(resultSet.getObject(RELEASE_DATE, LocalDate.class))
+                .mpa(MPARating.builder().id(resultSet.getLong(MPA_ID)).name(resultSet.getString(MPA_NAME)).build())
+                .genres(new ArrayList<>())
+                .directors(new ArrayList<>())
                 .build();
     }
 }
@@ -9,6 +9,7 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import ru.yandex.practicum.filmorate.exception.InternalServerException;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +29,13 @@ public class BaseRepository<T> {
         }
     }
 
+    /**
+     * Есть ли хотя бы одна строка в результате запроса; строки не маппятся в сущности.
+     */
+    protected boolean exists(String query, Object... params) {
+        return Boolean.TRUE.equals(jdbc.query(query, ResultSet::next, params));
+    }
+
     protected List<T> findMany(String query, Object... params) {
         return jdbc.query(query, mapper, params);
     }
@@ -41,11 +49,18 @@ public class BaseRepository<T> {
         jdbc.update(query, params);
     }
 
-    protected void insert(String query, Object... params) {
+    protected void batchUpdate(String query, List<Object[]> batchArgs) {
+        if (!batchArgs.isEmpty()) {
+            jdbc.batchUpdate(query, batchArgs);
+        }
+    }
+
+    protected boolean insert(String query, Object... params) {
         int rowsUpdated = jdbc.update(query, params);
         if (rowsUpdated == 0) {
             log.error("Не удалось создать данные");
         }
+        return rowsUpdated > 0;
     }
 
     protected long insertWithGeneratedId(String query, Object... params) {
@@ -5,6 +5,8 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Director;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,8 @@ import java.util.Optional;
 public class DirectorRepository extends BaseRepository<Director> {
     private static final String FIND_ALL_QUERY = "SELECT * FROM directors";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM directors WHERE id = ?";
+    private static final String EXISTS_QUERY = "SELECT 1 FROM directors WHERE id = ?";
+    private static final String FIND_BY_IDS_QUERY = "SELECT * FROM directors WHERE id IN (%s)";
     private static final String INSERT_QUERY = "INSERT INTO directors (name) VALUES (?)";
     private static final String UPDATE_QUERY = "UPDATE directors SET name = ? WHERE id = ?";
     private static final String DELETE_QUERY = "DELETE FROM directors WHERE id = ?";
@@ -28,6 +32,18 @@ public class DirectorRepository extends BaseRepository<Director> {
         return findOne(FIND_BY_ID_QUERY, directorId);
     }
 
+    public boolean existsById(long directorId) {
+        return exists(EXISTS_QUERY, directorId);
+    }
+
+    public List<Director> findByIds(Collection<Long> directorIds) {
+        if (directorIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(directorIds.size(), "?"));
+        return findMany(String.format(FIND_BY_IDS_QUERY, placeholders), directorIds.toArray());
+    }
+
     public Director create(Director director) {
         Long id = insertWithGeneratedId(INSERT_QUERY, director.getName());
         director.setId(id);
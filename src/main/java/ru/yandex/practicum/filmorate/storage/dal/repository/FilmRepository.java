@@ -1,85 +1,120 @@
 package ru.yandex.practicum.filmorate.storage.dal.repository;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.SearchBy;
 import ru.yandex.practicum.filmorate.model.SortBy;
+import ru.yandex.practicum.filmorate.storage.director.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.utils.FilmFingerprint;
 
 import java.sql.Timestamp;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Repository
 public class FilmRepository extends BaseRepository<Film> {
-    private static final String BASE_FIND_QUERY = "SELECT f.*, " +
-                                                  "mpa.name as mpa_name, " +
-                                                  "string_agg(g.id, ', ') as genre_ids, " +
-                                                  "string_agg(g.name, ', ') as genre_names, " +
-                                                  "string_agg(d.id, ', ') as director_ids, " +
-                                                  "string_agg(d.name, ', ') as director_names " +
+    // Порядок колонок должен совпадать с индексами в FilmRowMapper
+    private static final String BASE_FIND_QUERY = "SELECT f.id, f.name, f.description, f.release_date, " +
+                                                  "f.duration, f.mpa_rating, mpa.name as mpa_name " +
                                                   "FROM films f " +
-                                                  "LEFT JOIN film_genres fg on fg.film_id = f.id " +
-                                                  "LEFT JOIN genres g on g.id = fg.genre_id " +
-                                                  "LEFT JOIN mpa_ratings mpa on mpa.id = f.mpa_rating " +
-                                                  "LEFT JOIN film_directors fd on fd.film_id = f.id " +
-                                                  "LEFT JOIN directors d on d.id = fd.director_id ";
-
-    private static final String FIND_BY_ID_QUERY = BASE_FIND_QUERY +
-                                                   "WHERE f.id = ? " +
-                                                   "GROUP BY f.id";
-    private static final String FIND_DUPLICATE_QUERY = BASE_FIND_QUERY +
-                                                  "WHERE f.name = ? " +
-                                                  "AND f.release_date = ? " +
-                                                  "AND f.mpa_rating = ? ";
+                                                  "LEFT JOIN mpa_ratings mpa on mpa.id = f.mpa_rating ";
+
+    // Названия жанров и режиссеров берутся из кэшей справочников, из связей читаются только id
+    static final String FIND_GENRES_QUERY = "SELECT film_id, genre_id FROM film_genres " +
+                                                    "WHERE film_id IN (%s) " +
+                                                    "ORDER BY genre_id";
+    static final String FIND_DIRECTORS_QUERY = "SELECT film_id, director_id FROM film_directors " +
+                                                       "WHERE film_id IN (%s) " +
+                                                       "ORDER BY director_id";
+    private static final int IN_BATCH_SIZE = 1000;
+    private static final String DUPLICATE_MESSAGE = "Фильм с таким названием и датой релиза уже существует";
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    static final String FIND_BY_ID_QUERY = BASE_FIND_QUERY +
+                                                   "WHERE f.id = ?";
+    private static final String EXISTS_QUERY = "SELECT 1 FROM films WHERE id = ?";
+    static final String FIND_DUPLICATE_QUERY = BASE_FIND_QUERY +
+                                                  "WHERE f.fingerprint = ?";
+    private static final String FIND_MISSING_FINGERPRINT_IDS_QUERY = "SELECT id FROM films " +
+                                                                     "WHERE fingerprint IS NULL AND id > ? " +
+                                                                     "ORDER BY id LIMIT ?";
+    private static final String UPDATE_FINGERPRINT_QUERY = "UPDATE films SET fingerprint = ? WHERE id = ?";
 
     private static final String FIND_ALL_QUERY = BASE_FIND_QUERY +
-                                                 "GROUP BY f.id";
-
-    private static final String FIND_POPULAR_QUERY = BASE_FIND_QUERY +
-                                                "LEFT JOIN likes l on l.film_id = f.id " +
-                                                "WHERE 1=1 " +
-                                                "AND CASE WHEN ? IS NOT NULL THEN EXTRACT(YEAR FROM f.release_date) = ? ELSE TRUE END " +
-                                                "AND CASE WHEN ? IS NOT NULL THEN f.id in (SELECT fg2.film_id FROM film_genres fg2 WHERE fg2.genre_id = ?) ELSE TRUE END " +
-                                                "GROUP BY f.id " +
-                                                "ORDER BY count(l.user_id) DESC ";
-
-    private static final String FIND_COMMON_QUERY = BASE_FIND_QUERY +
-                                                    "LEFT JOIN likes l on l.film_id = f.id " +
+                                                 "ORDER BY f.id";
+    static final String FIND_PAGE_QUERY = BASE_FIND_QUERY +
+                                                  "WHERE f.id > ? " +
+                                                  "ORDER BY f.id " +
+                                                  "LIMIT ?";
+
+    static final String FIND_BY_IDS_QUERY = BASE_FIND_QUERY +
+                                                    "WHERE f.id IN (%s)";
+
+    private static final String FIND_RANKING_QUERY = "SELECT f.id, " +
+                                                     "EXTRACT(YEAR FROM f.release_date) as release_year, " +
+                                                     "f.like_count, " +
+                                                     "fg.genre_id " +
+                                                     "FROM films f " +
+                                                     "LEFT JOIN film_genres fg on fg.film_id = f.id";
+
+    private static final String FIND_POPULAR_IDS_QUERY = "SELECT tf.id FROM films tf " +
+                                                "WHERE CASE WHEN ? IS NOT NULL THEN EXTRACT(YEAR FROM tf.release_date) = ? ELSE TRUE END " +
+                                                "AND CASE WHEN ? IS NOT NULL THEN tf.id in (SELECT fg2.film_id FROM film_genres fg2 WHERE fg2.genre_id = ?) ELSE TRUE END ";
+    private static final String TOP_POPULAR_IDS_QUERY = FIND_POPULAR_IDS_QUERY +
+                                                "ORDER BY tf.like_count DESC, tf.id " +
+                                                "LIMIT ?";
+
+    static final String FIND_POPULAR_QUERY = BASE_FIND_QUERY +
+                                                "WHERE f.id IN (%s) " +
+                                                "ORDER BY f.like_count DESC, f.id";
+
+    static final String FIND_COMMON_QUERY = BASE_FIND_QUERY +
                                                     "WHERE f.id IN (" +
-                                                        "SELECT l1.film_id " +
-                                                        "FROM likes l1 " +
-                                                        "JOIN likes l2 on l1.film_id = l2.film_id " +
-                                                        "WHERE l1.user_id = ? AND l2.user_id = ?" +
+                                                        "SELECT film_id FROM likes WHERE user_id = ? " +
+                                                        "INTERSECT " +
+                                                        "SELECT film_id FROM likes WHERE user_id = ?" +
                                                     ")" +
-                                                    "GROUP BY f.id " +
-                                                    "ORDER BY count(l.user_id) DESC";
+                                                    "ORDER BY f.like_count DESC, f.id";
 
-    private static final String FIND_BY_DIRECTOR_YEAR_QUERY = BASE_FIND_QUERY +
+    static final String FIND_BY_DIRECTOR_YEAR_QUERY = BASE_FIND_QUERY +
                                                               "WHERE f.id IN (" +
                                                               "SELECT fd1.film_id " +
                                                               "FROM film_directors fd1 " +
                                                               "WHERE fd1.director_id = ?" +
                                                               ")" +
-                                                              "GROUP BY f.id " +
                                                               "ORDER BY f.release_date";
 
     public static final String FIND_BY_DIRECTOR_LIKES_QUERY = BASE_FIND_QUERY +
-                                                              "LEFT JOIN likes l on l.film_id = f.id " +
                                                               "WHERE f.id IN (" +
                                                               "SELECT fd1.film_id " +
                                                               "FROM film_directors fd1 " +
                                                               "WHERE fd1.director_id = ?" +
                                                               ")" +
-                                                              "GROUP BY f.id " +
-                                                              "ORDER BY count(l.user_id) DESC";
+                                                              "ORDER BY f.like_count DESC, f.id";
     public static final String SEARCH_BY_BASE_QUERY = BASE_FIND_QUERY +
-                                                      "LEFT JOIN likes l on l.film_id = f.id " +
                                                       "WHERE 1 = 0 ";
     public static final String SEARCH_BY_TITLE_QUERY = "OR LOWER(f.name) LIKE LOWER(?) ";
     public static final String SEARCH_BY_DIRECTOR_QUERY = "OR f.id IN (" +
@@ -87,49 +122,100 @@ public class FilmRepository extends BaseRepository<Film> {
                                                           "FROM film_directors fd1 " +
                                                           "JOIN directors d1 ON fd1.director_id = d1.id AND LOWER(d1.name) LIKE LOWER(?)) ";
 
-    private static final String INSERT_QUERY = "INSERT INTO films (name, description, release_date, duration, mpa_rating) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_QUERY = "INSERT INTO films (name, description, release_date, duration, mpa_rating, fingerprint) VALUES (?, ?, ?, ?, ?, ?)";
     private static final String DELETE_QUERY = "DELETE FROM films WHERE id = ?"; // Define it HERE
+    private static final String FIND_GENRE_IDS_QUERY = "SELECT genre_id FROM film_genres WHERE film_id = ?";
     private static final String INSERT_GENRES_QUERY = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-    private static final String DELETE_GENRES_QUERY = "DELETE FROM film_genres WHERE film_id = ?";
+    private static final String DELETE_GENRES_QUERY = "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
+    private static final String FIND_DIRECTOR_IDS_QUERY = "SELECT director_id FROM film_directors WHERE film_id = ?";
     private static final String INSERT_DIRECTORS_QUERY = "INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)";
-    private static final String DELETE_DIRECTORS_QUERY = "DELETE FROM film_directors WHERE film_id = ?";
-    private static final String UPDATE_QUERY = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_rating = ? WHERE id = ?";
+    private static final String DELETE_DIRECTORS_QUERY = "DELETE FROM film_directors WHERE film_id = ? AND director_id = ?";
+    private static final String UPDATE_QUERY = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_rating = ?, fingerprint = ? WHERE id = ?";
 
-    public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper) {
+    private final GenreStorage genreStorage;
+    private final DirectorStorage directorStorage;
+
+    public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper,
+                          GenreStorage genreStorage, DirectorStorage directorStorage) {
         super(jdbc, mapper);
+        this.genreStorage = genreStorage;
+        this.directorStorage = directorStorage;
     }
 
     public List<Film> findAll() {
         return findMany(FIND_ALL_QUERY);
     }
 
+    public List<Film> findPage(long afterId, int limit) {
+        return findMany(FIND_PAGE_QUERY, afterId, limit);
+    }
+
+    // Жанры и режиссеры догружаются пачками, поэтому фильмы читаются страницами по ключу, а не одним курсором
+    public void forEach(Consumer<Film> action) {
+        List<Film> page = findPage(0, STREAM_BATCH_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(action);
+            page = findPage(page.getLast().getId(), STREAM_BATCH_SIZE);
+        }
+    }
+
     public Optional<Film> findById(Long filmId) {
         return findOne(FIND_BY_ID_QUERY, filmId);
     }
 
+    public boolean existsById(long filmId) {
+        return exists(EXISTS_QUERY, filmId);
+    }
+
+    public List<Film> findByIds(List<Long> filmIds) {
+        Map<Long, Film> films = new HashMap<>();
+        for (int from = 0; from < filmIds.size(); from += IN_BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + IN_BATCH_SIZE, filmIds.size()));
+            findMany(String.format(FIND_BY_IDS_QUERY, placeholders(batch.size())), batch.toArray())
+                    .forEach(film -> films.put(film.getId(), film));
+        }
+        return filmIds.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void forEachRanking(RankingHandler handler) {
+        jdbc.query(FIND_RANKING_QUERY, (RowCallbackHandler) rs -> handler.handle(rs.getLong("id"),
+                rs.getObject("release_year", Integer.class),
+                rs.getLong("like_count"),
+                rs.getObject("genre_id", Long.class)));
+    }
+
     public Optional<Film> findDuplicate(Film film) {
-        StringBuilder sqlQuery = new StringBuilder(FIND_DUPLICATE_QUERY);
-        List<Object> params = new ArrayList<>();
-        params.add(film.getName());
-        params.add(film.getReleaseDate());
-        params.add(film.getMpa().getId());
-        if (film.getGenres() != null) {
-            for (Genre genre : film.getGenres()) {
-                sqlQuery.append("AND EXISTS (SELECT 1 FROM film_genres fg1 WHERE fg1.genre_id = ? AND fg1.film_id = f.id) ");
-                params.add(genre.getId());
+        return findOne(FIND_DUPLICATE_QUERY, FilmFingerprint.of(film));
+    }
+
+    // Заполняет отпечатки фильмов, сохраненных до появления колонки fingerprint
+    public int backfillFingerprints() {
+        int updated = 0;
+        List<Long> ids = jdbc.queryForList(FIND_MISSING_FINGERPRINT_IDS_QUERY, Long.class, 0, IN_BATCH_SIZE);
+        while (!ids.isEmpty()) {
+            for (Film film : findByIds(ids)) {
+                try {
+                    update(UPDATE_FINGERPRINT_QUERY, FilmFingerprint.of(film), film.getId());
+                    updated++;
+                } catch (DuplicateKeyException e) {
+                    log.warn("Фильм с id = {} дублирует другой фильм, отпечаток не сохранен", film.getId());
+                }
             }
+            ids = jdbc.queryForList(FIND_MISSING_FINGERPRINT_IDS_QUERY, Long.class, ids.getLast(), IN_BATCH_SIZE);
         }
-        sqlQuery.append("GROUP BY f.id");
-        return findOne(sqlQuery.toString(), params.toArray());
+        return updated;
     }
 
     public List<Film> findPopular(Integer count, Integer year, Long genreId) {
         if (count == null) {
-            return findMany(FIND_POPULAR_QUERY,
+            return findMany(String.format(FIND_POPULAR_QUERY, FIND_POPULAR_IDS_QUERY),
                     year, year,
                     genreId, genreId);
         }
-        return findMany(FIND_POPULAR_QUERY + " LIMIT ?",
+        return findMany(String.format(FIND_POPULAR_QUERY, TOP_POPULAR_IDS_QUERY),
                 year, year,
                 genreId, genreId,
                 count);
@@ -140,43 +226,72 @@ public class FilmRepository extends BaseRepository<Film> {
     }
 
     public Film create(Film film) {
-        Long id = insertWithGeneratedId(INSERT_QUERY,
-                film.getName(),
-                film.getDescription(),
-                Timestamp.from(film.getReleaseDate().atStartOfDay().toInstant(ZoneOffset.UTC)),
-                film.getDuration(),
-                film.getMpa().getId());
-        film.setId(id);
-        if (film.getGenres() != null) {
-            film.getGenres().forEach(genre -> insert(INSERT_GENRES_QUERY, id, genre.getId()));
-        }
-        if (film.getDirectors() != null) {
-            film.getDirectors().forEach(director -> insert(INSERT_DIRECTORS_QUERY, id, director.getId()));
+        Long id;
+        try {
+            id = insertWithGeneratedId(INSERT_QUERY,
+                    film.getName(),
+                    film.getDescription(),
+                    Timestamp.from(film.getReleaseDate().atStartOfDay().toInstant(ZoneOffset.UTC)),
+                    film.getDuration(),
+                    film.getMpa().getId(),
+                    FilmFingerprint.of(film));
+        } catch (DuplicateKeyException e) {
+            throw new DuplicatedDataException(DUPLICATE_MESSAGE);
         }
+        film.setId(id);
+        batchUpdate(INSERT_GENRES_QUERY, linkRows(id, genreIds(film)));
+        batchUpdate(INSERT_DIRECTORS_QUERY, linkRows(id, directorIds(film)));
         return film;
     }
 
     public Film update(Film film) {
-        update(UPDATE_QUERY,
-                film.getName(),
-                film.getDescription(),
-                Timestamp.from(film.getReleaseDate().atStartOfDay().toInstant(ZoneOffset.UTC)),
-                film.getDuration(),
-                film.getMpa().getId(),
-                film.getId());
-
-        delete(DELETE_GENRES_QUERY, film.getId());
-        if (film.getGenres() != null) {
-            film.getGenres().forEach(genre -> insert(INSERT_GENRES_QUERY, film.getId(), genre.getId()));
+        try {
+            update(UPDATE_QUERY,
+                    film.getName(),
+                    film.getDescription(),
+                    Timestamp.from(film.getReleaseDate().atStartOfDay().toInstant(ZoneOffset.UTC)),
+                    film.getDuration(),
+                    film.getMpa().getId(),
+                    FilmFingerprint.of(film),
+                    film.getId());
+        } catch (DuplicateKeyException e) {
+            throw new DuplicatedDataException(DUPLICATE_MESSAGE);
         }
 
-        delete(DELETE_DIRECTORS_QUERY, film.getId());
-        if (film.getDirectors() != null) {
-            film.getDirectors().forEach(director -> insert(INSERT_DIRECTORS_QUERY, film.getId(), director.getId()));
-        }
+        syncLinks(film.getId(), genreIds(film), FIND_GENRE_IDS_QUERY, INSERT_GENRES_QUERY, DELETE_GENRES_QUERY);
+        syncLinks(film.getId(), directorIds(film), FIND_DIRECTOR_IDS_QUERY, INSERT_DIRECTORS_QUERY, DELETE_DIRECTORS_QUERY);
         return film;
     }
 
+    // Удаляются и добавляются только те связи, которые отличаются от сохраненных
+    private void syncLinks(long filmId, Set<Long> targetIds, String findQuery, String insertQuery, String deleteQuery) {
+        Set<Long> currentIds = new HashSet<>(jdbc.queryForList(findQuery, Long.class, filmId));
+        batchUpdate(deleteQuery, linkRows(filmId, currentIds.stream()
+                .filter(id -> !targetIds.contains(id))
+                .toList()));
+        batchUpdate(insertQuery, linkRows(filmId, targetIds.stream()
+                .filter(id -> !currentIds.contains(id))
+                .toList()));
+    }
+
+    private static Set<Long> genreIds(Film film) {
+        return film.getGenres() == null ? Set.of() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Set<Long> directorIds(Film film) {
+        return film.getDirectors() == null ? Set.of() : film.getDirectors().stream()
+                .map(Director::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static List<Object[]> linkRows(long filmId, Collection<Long> ids) {
+        return ids.stream()
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+    }
+
     public List<Film> getByDirector(Long directorId, SortBy sortBy) {
         return switch (sortBy) {
             case YEAR -> findMany(FIND_BY_DIRECTOR_YEAR_QUERY, directorId);
@@ -199,7 +314,68 @@ public class FilmRepository extends BaseRepository<Film> {
            sqlQuery += SEARCH_BY_DIRECTOR_QUERY;
            params.add("%" + query + "%");
        }
-       sqlQuery += "GROUP BY f.id ORDER BY count(l.user_id) DESC ";
+       sqlQuery += "ORDER BY f.like_count DESC, f.id ";
        return findMany(sqlQuery, params.toArray());
     }
+
+    @Override
+    protected Optional<Film> findOne(String query, Object... params) {
+        Optional<Film> film = super.findOne(query, params);
+        film.ifPresent(value -> hydrate(List.of(value)));
+        return film;
+    }
+
+    @Override
+    protected List<Film> findMany(String query, Object... params) {
+        return hydrate(super.findMany(query, params));
+    }
+
+    private List<Film> hydrate(List<Film> films) {
+        Map<Long, Film> filmsById = new HashMap<>();
+        films.forEach(film -> filmsById.put(film.getId(), film));
+        List<Long> filmIds = new ArrayList<>(filmsById.keySet());
+        List<long[]> genreLinks = new ArrayList<>();
+        List<long[]> directorLinks = new ArrayList<>();
+
+        for (int from = 0; from < filmIds.size(); from += IN_BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + IN_BATCH_SIZE, filmIds.size()));
+            String placeholders = placeholders(batch.size());
+            Object[] params = batch.toArray();
+
+            jdbc.query(String.format(FIND_GENRES_QUERY, placeholders), (RowCallbackHandler) rs ->
+                    genreLinks.add(new long[]{rs.getLong(1), rs.getLong(2)}), params);
+            jdbc.query(String.format(FIND_DIRECTORS_QUERY, placeholders), (RowCallbackHandler) rs ->
+                    directorLinks.add(new long[]{rs.getLong(1), rs.getLong(2)}), params);
+        }
+
+        Map<Long, String> genreNames = new HashMap<>();
+        genreStorage.getByIds(linkedIds(genreLinks)).forEach(value -> genreNames.put(value.getId(), value.getName()));
+        genreLinks.forEach(link -> filmsById.get(link[0]).getGenres().add(Genre.builder()
+                .id(link[1])
+                .name(genreNames.get(link[1]))
+                .build()));
+
+        Map<Long, String> directorNames = new HashMap<>();
+        directorStorage.getByIds(linkedIds(directorLinks)).forEach(value -> directorNames.put(value.getId(), value.getName()));
+        directorLinks.forEach(link -> filmsById.get(link[0]).getDirectors().add(Director.builder()
+                .id(link[1])
+                .name(directorNames.get(link[1]))
+                .build()));
+        return films;
+    }
+
+    private static Set<Long> linkedIds(List<long[]> links) {
+        return links.stream()
+                .map(link -> link[1])
+                .collect(Collectors.toSet());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @FunctionalInterface
+    public interface RankingHandler {
+        void handle(long filmId, Integer year, long likes, Long genreId);
+    }
 }
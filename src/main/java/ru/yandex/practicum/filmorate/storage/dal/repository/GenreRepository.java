@@ -5,6 +5,8 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,7 @@ import java.util.Optional;
 public class GenreRepository extends BaseRepository<Genre> {
     private static final String FIND_ALL_QUERY = "SELECT * FROM genres";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM genres WHERE id = ?";
+    private static final String FIND_BY_IDS_QUERY = "SELECT * FROM genres WHERE id IN (%s)";
 
     public GenreRepository(JdbcTemplate jdbc, RowMapper<Genre> mapper) {
         super(jdbc, mapper);
@@ -25,4 +28,12 @@ public class GenreRepository extends BaseRepository<Genre> {
         return findOne(FIND_BY_ID_QUERY, genreId);
     }
 
+    public List<Genre> findByIds(Collection<Long> genreIds) {
+        if (genreIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(genreIds.size(), "?"));
+        return findMany(String.format(FIND_BY_IDS_QUERY, placeholders), genreIds.toArray());
+    }
+
 }
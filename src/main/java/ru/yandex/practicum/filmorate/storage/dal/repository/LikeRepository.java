@@ -1,21 +1,30 @@
 package ru.yandex.practicum.filmorate.storage.dal.repository;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Like;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 @Repository
 public class LikeRepository extends BaseRepository<Like> {
     private static final String FIND_ALL_QUERY = "SELECT * FROM likes";
     private static final String FIND_BY_FILM_IDS_QUERY = "SELECT * FROM likes WHERE film_id IN ?";
-    private static final String FIND_COMMON_QUERY = "SELECT * FROM likes WHERE user_id = ? OR user_id = ?";
+    static final String FIND_FILM_IDS_BY_USER_ID_QUERY = "SELECT film_id FROM likes WHERE user_id = ?";
     private static final String INSERT_QUERY = "INSERT INTO likes (user_id, film_id) " +
                                                "SELECT ?, ? FROM dual " +
                                                "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE user_id = ? AND film_id = ?)";
     private static final String DELETE_QUERY = "DELETE FROM likes WHERE user_id = ? AND film_id = ?";
+    private static final String INCREMENT_LIKE_COUNT_QUERY = "UPDATE films SET like_count = like_count + 1 WHERE id = ?";
+    private static final String DECREMENT_LIKE_COUNT_QUERY = "UPDATE films SET like_count = like_count - 1 WHERE id = ?";
+    static final String RELEASE_USER_LIKES_QUERY = "UPDATE films SET like_count = like_count - 1 " +
+                                                           "WHERE id IN (SELECT film_id FROM likes WHERE user_id = ?)";
+    private static final String DELETE_BY_USER_ID_QUERY = "DELETE FROM likes WHERE user_id = ?";
+    static final String DELETE_BY_FILM_ID_QUERY = "DELETE FROM likes WHERE film_id = ?";
 
     public LikeRepository(JdbcTemplate jdbc, RowMapper<Like> mapper) {
         super(jdbc, mapper);
@@ -25,19 +34,43 @@ public class LikeRepository extends BaseRepository<Like> {
         return findMany(FIND_ALL_QUERY);
     }
 
-    public void create(long userId, long filmId) {
-        insert(INSERT_QUERY, userId, filmId, userId, filmId);
+    public void forEach(BiConsumer<Long, Long> action) {
+        jdbc.query(FIND_ALL_QUERY, (RowCallbackHandler) rs -> action.accept(rs.getLong("user_id"), rs.getLong("film_id")));
     }
 
-    public void remove(long userId, long filmId) {
-        delete(DELETE_QUERY, userId, filmId);
+    public boolean create(long userId, long filmId) {
+        try {
+            if (!insert(INSERT_QUERY, userId, filmId, userId, filmId)) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            // Такой же лайк параллельно прошел проверку NOT EXISTS и был вставлен первым
+            return false;
+        }
+        update(INCREMENT_LIKE_COUNT_QUERY, filmId);
+        return true;
     }
 
-    public List<Like> findByFilmIds(List<Long> filmIds) {
-        return findMany(FIND_BY_FILM_IDS_QUERY, filmIds);
+    public boolean remove(long userId, long filmId) {
+        if (!delete(DELETE_QUERY, userId, filmId)) {
+            return false;
+        }
+        update(DECREMENT_LIKE_COUNT_QUERY, filmId);
+        return true;
+    }
+
+    public List<Long> removeByUserId(long userId) {
+        List<Long> filmIds = jdbc.queryForList(FIND_FILM_IDS_BY_USER_ID_QUERY, Long.class, userId);
+        update(RELEASE_USER_LIKES_QUERY, userId);
+        delete(DELETE_BY_USER_ID_QUERY, userId);
+        return filmIds;
     }
 
-    public List<Like> findCommon(long userId, long friendId) {
-        return findMany(FIND_COMMON_QUERY, userId, friendId);
+    public void removeByFilmId(long filmId) {
+        delete(DELETE_BY_FILM_ID_QUERY, filmId);
+    }
+
+    public List<Like> findByFilmIds(List<Long> filmIds) {
+        return findMany(FIND_BY_FILM_IDS_QUERY, filmIds);
     }
 }
@@ -11,26 +11,35 @@ import java.util.Optional;
 @Repository
 public class ReviewRepository extends BaseRepository<Review> {
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM reviews WHERE review_id = ?";
-    private static final String FIND_ALL_QUERY = "SELECT * FROM reviews WHERE film_id = ? OR ? IS NULL ORDER BY useful DESC LIMIT ?";
+    private static final String EXISTS_QUERY = "SELECT 1 FROM reviews WHERE review_id = ?";
+    private static final String FIND_ALL_QUERY = "SELECT * FROM reviews ORDER BY useful DESC LIMIT ?";
+    static final String FIND_BY_FILM_ID_QUERY = "SELECT * FROM reviews WHERE film_id = ? ORDER BY useful DESC LIMIT ?";
     private static final String INSERT_QUERY = "INSERT INTO reviews (content, is_positive, user_id, film_id) VALUES (?, ?, ?, ?)";
     private static final String UPDATE_QUERY = "UPDATE reviews SET content = ?, is_positive = ? WHERE review_id = ?";
     private static final String DELETE_QUERY = "DELETE FROM reviews WHERE review_id = ?";
     private static final String ADD_REACTION_QUERY = "INSERT INTO review_reactions (review_id, user_id, is_positive) VALUES (?, ?, ?)";
     private static final String REMOVE_REACTION_QUERY = "DELETE FROM review_reactions WHERE review_id = ? AND user_id = ?";
-    private static final String UPDATE_USEFUL_QUERY = "UPDATE reviews SET useful = (SELECT COUNT(CASE WHEN is_positive THEN 1 END) - COUNT(CASE WHEN NOT is_positive THEN 1 END) FROM review_reactions WHERE review_id = ?) WHERE review_id = ?";
+    static final String UPDATE_USEFUL_QUERY = "UPDATE reviews SET useful = (SELECT COUNT(CASE WHEN is_positive THEN 1 END) - COUNT(CASE WHEN NOT is_positive THEN 1 END) FROM review_reactions WHERE review_id = ?) WHERE review_id = ?";
 
     public ReviewRepository(JdbcTemplate jdbc, RowMapper<Review> mapper) {
         super(jdbc, mapper);
     }
 
     public List<Review> findAll(Long filmId, int count) {
-        return findMany(FIND_ALL_QUERY, filmId, filmId, count);
+        if (filmId == null) {
+            return findMany(FIND_ALL_QUERY, count);
+        }
+        return findMany(FIND_BY_FILM_ID_QUERY, filmId, count);
     }
 
     public Optional<Review> findById(long reviewId) {
         return findOne(FIND_BY_ID_QUERY, reviewId);
     }
 
+    public boolean existsById(long reviewId) {
+        return exists(EXISTS_QUERY, reviewId);
+    }
+
     public Review create(Review review) {
         long id = insertWithGeneratedId(INSERT_QUERY,
                 review.getContent(),
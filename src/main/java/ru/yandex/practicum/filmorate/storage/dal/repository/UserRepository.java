@@ -9,19 +9,23 @@ import java.sql.Timestamp;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class UserRepository extends BaseRepository<User> {
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM users WHERE id = ?";
-    private static final String FIND_BY_EMAIL_QUERY = "SELECT * FROM users WHERE email = ?";
-    private static final String FIND_BY_LOGIN_QUERY = "SELECT * FROM users WHERE login = ?";
+    private static final String EXISTS_QUERY = "SELECT 1 FROM users WHERE id = ?";
+    static final String FIND_BY_EMAIL_QUERY = "SELECT * FROM users WHERE email = ?";
+    static final String FIND_BY_LOGIN_QUERY = "SELECT * FROM users WHERE login = ?";
     private static final String FIND_ALL_QUERY = "SELECT * FROM users";
+    static final String FIND_PAGE_QUERY = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
     private static final String INSERT_QUERY = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
     private static final String UPDATE_QUERY = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
     private static final String DELETE_QUERY = "DELETE FROM users WHERE id = ?"; // Correct DELETE_QUERY
+    private static final int STREAM_BATCH_SIZE = 500;
 
     private static final String FIND_FRIENDS_BY_ID_QUERY = "SELECT * FROM users WHERE id IN (SELECT friend_id FROM friendships WHERE user_id = ?)";
-    private static final String FIND_COMMON_FRIENDS_QUERY = "SELECT * FROM users " +
+    static final String FIND_COMMON_FRIENDS_QUERY = "SELECT * FROM users " +
                                                             "WHERE id IN (SELECT friend_id FROM friendships WHERE user_id = ?)" +
                                                             "AND id IN (SELECT friend_id FROM friendships WHERE user_id = ?)";
 
@@ -33,10 +37,27 @@ public class UserRepository extends BaseRepository<User> {
         return findOne(FIND_BY_ID_QUERY, userId);
     }
 
+    public boolean existsById(long userId) {
+        return exists(EXISTS_QUERY, userId);
+    }
+
     public List<User> findAll() {
         return findMany(FIND_ALL_QUERY);
     }
 
+    public List<User> findPage(long afterId, int limit) {
+        return findMany(FIND_PAGE_QUERY, afterId, limit);
+    }
+
+    // Читает страницами по id, чтобы соединение не удерживалось, пока медленный клиент принимает ответ
+    public void forEach(Consumer<User> action) {
+        List<User> page = findPage(0, STREAM_BATCH_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(action);
+            page = findPage(page.getLast().getId(), STREAM_BATCH_SIZE);
+        }
+    }
+
     public User create(User user) {
         long id = insertWithGeneratedId(
                 INSERT_QUERY,
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage.director;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.storage.CachingReferenceStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.utils.TransactionHooks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Все изменения режиссеров проходят через это хранилище, поэтому кэш обновляется после фиксации записи в БД.
+ * Переименование или удаление режиссера меняет закэшированные фильмы, поэтому кэш фильмов сбрасывается целиком,
+ * а имя режиссера обновляется в поисковом индексе фильмов.
+ */
+@Component
+@Primary
+public class CachingDirectorStorage extends CachingReferenceStorage<Director> implements DirectorStorage {
+    final DbDirectorStorage directorStorage;
+    final FilmCache filmCache;
+    final FilmSearchIndex searchIndex;
+
+    public CachingDirectorStorage(DbDirectorStorage directorStorage, FilmCache filmCache, FilmSearchIndex searchIndex) {
+        super("directors", Director::getId);
+        this.directorStorage = directorStorage;
+        this.filmCache = filmCache;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    protected List<Director> loadAll() {
+        return directorStorage.getAll();
+    }
+
+    @Override
+    protected void afterPreload(List<Director> directors) {
+        searchIndex.loadDirectors(directors);
+    }
+
+    @Override
+    public List<Director> getAll() {
+        return cache.getAll(directorStorage::getAll);
+    }
+
+    @Override
+    public Optional<Director> getById(long id) {
+        return cache.get(id, directorStorage::getById);
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return getById(id).isPresent();
+    }
+
+    @Override
+    public List<Director> getByIds(Collection<Long> ids) {
+        return cache.getByIds(ids, directorStorage::getByIds);
+    }
+
+    @Override
+    public Director create(Director director) {
+        Director created = directorStorage.create(director);
+        Director cached = copy(created);
+        TransactionHooks.afterCommit(() -> {
+            cache.put(cached);
+            searchIndex.putDirector(cached.getId(), cached.getName());
+        });
+        return created;
+    }
+
+    @Override
+    public Director update(Director director) {
+        Director updated = directorStorage.update(director);
+        Director cached = copy(updated);
+        filmCache.invalidateAll();
+        TransactionHooks.afterCommit(() -> {
+            cache.put(cached);
+            searchIndex.putDirector(cached.getId(), cached.getName());
+            filmCache.invalidateAll();
+        });
+        return updated;
+    }
+
+    @Override
+    public void delete(long id) {
+        directorStorage.delete(id);
+        filmCache.invalidateAll();
+        TransactionHooks.afterCommit(() -> {
+            cache.remove(id);
+            searchIndex.removeDirector(id);
+            filmCache.invalidateAll();
+        });
+    }
+
+    @Override
+    public void clear() {
+        directorStorage.clear();
+        cache.invalidate();
+    }
+
+    // В кэш кладется копия, чтобы последующие изменения переданного объекта не меняли кэш
+    private static Director copy(Director director) {
+        return Director.builder()
+                .id(director.getId())
+                .name(director.getName())
+                .build();
+    }
+}
@@ -1,17 +1,16 @@
 package ru.yandex.practicum.filmorate.storage.director;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.dal.repository.DirectorRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
-@Primary
 public class DbDirectorStorage implements DirectorStorage {
     final DirectorRepository directorRepository;
 
@@ -25,6 +24,16 @@ public class DbDirectorStorage implements DirectorStorage {
         return directorRepository.findById(id);
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return directorRepository.existsById(id);
+    }
+
+    @Override
+    public List<Director> getByIds(Collection<Long> ids) {
+        return directorRepository.findByIds(ids);
+    }
+
     @Override
     public Director create(Director director) {
         return directorRepository.create(director);
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.director;
 
 import ru.yandex.practicum.filmorate.model.Director;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,10 @@ public interface DirectorStorage {
 
     Optional<Director> getById(long id);
 
+    boolean existsById(long id);
+
+    List<Director> getByIds(Collection<Long> ids);
+
     Director create(Director director);
 
     Director update(Director director);
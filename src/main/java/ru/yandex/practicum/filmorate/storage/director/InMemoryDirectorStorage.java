@@ -2,15 +2,19 @@ package ru.yandex.practicum.filmorate.storage.director;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.utils.IdSequence;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class InMemoryDirectorStorage implements DirectorStorage {
-    Map<Long, Director> directors = new HashMap<>();
+    final Map<Long, Director> directors = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     @Override
     public List<Director> getAll() {
@@ -22,9 +26,22 @@ public class InMemoryDirectorStorage implements DirectorStorage {
         return directors.get(id) == null ? Optional.empty() : Optional.of(directors.get(id));
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return directors.containsKey(id);
+    }
+
+    @Override
+    public List<Director> getByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(directors::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public Director create(Director director) {
-        director.setId(getNextId());
+        director.setId(idSequence.next());
         directors.put(director.getId(), director);
         return director;
     }
@@ -43,14 +60,6 @@ public class InMemoryDirectorStorage implements DirectorStorage {
     @Override
     public void clear() {
         directors.clear();
-    }
-
-    private long getNextId() {
-        long currentMaxId = directors.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        idSequence.reset();
     }
 }
@@ -7,23 +7,31 @@ import ru.yandex.practicum.filmorate.model.event.EventOperation;
 import ru.yandex.practicum.filmorate.model.event.EventType;
 
 import java.time.Instant;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @RequiredArgsConstructor
 public class InMemoryEventStorage implements EventStorage {
-    private final HashMap<Long, List<Event>> userEvents = new HashMap<>();
-    private long currentId = 0;
+    private final Map<Long, Collection<Event>> userEvents = new ConcurrentHashMap<>();
+    private final AtomicLong currentId = new AtomicLong();
 
     @Override
     public List<Event> findByUserId(Long id) {
-        return userEvents.get(id) == null ? new ArrayList<>() : userEvents.get(id).stream().sorted(Comparator.comparing(Event::getEventId)).toList();
+        Collection<Event> events = userEvents.get(id);
+        return events == null ? new ArrayList<>() : events.stream().sorted(Comparator.comparing(Event::getEventId)).toList();
     }
 
     @Override
     public void create(Long userId, Long entityId, EventType eventType, EventOperation eventOperation) {
         Event event = Event.builder()
-                .eventId(++currentId)
+                .eventId(currentId.incrementAndGet())
                 .userId(userId)
                 .entityId(entityId)
                 .eventType(eventType)
@@ -31,7 +39,7 @@ public class InMemoryEventStorage implements EventStorage {
                 .timestamp(Instant.now().toEpochMilli())
                 .build();
 
-        userEvents.computeIfAbsent(userId, id -> new ArrayList<>()).add(event);
+        userEvents.computeIfAbsent(userId, id -> new ConcurrentLinkedQueue<>()).add(event);
     }
 
     @Override
@@ -1,30 +1,77 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSuggestion;
 import ru.yandex.practicum.filmorate.model.SearchBy;
-import ru.yandex.practicum.filmorate.storage.dal.repository.FilmRepository;
 import ru.yandex.practicum.filmorate.model.SortBy;
+import ru.yandex.practicum.filmorate.storage.dal.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
+import ru.yandex.practicum.filmorate.utils.TransactionHooks;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+@Slf4j
 @Component
 @Primary
 @RequiredArgsConstructor
 public class DbFilmStorage implements FilmStorage {
     final FilmRepository filmRepository;
+    final PopularityLeaderboard leaderboard;
+    final FilmCache filmCache;
+    final FilmSearchIndex searchIndex;
+    final LikeStorage likeStorage;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFingerprints() {
+        int updated = filmRepository.backfillFingerprints();
+        if (updated > 0) {
+            log.info("Заполнены отпечатки для {} фильмов", updated);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        searchIndex.rebuildFilms(filmRepository::forEach);
+    }
 
     @Override
     public List<Film> getAll() {
         return filmRepository.findAll();
     }
 
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return filmRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<Film> action) {
+        filmRepository.forEach(action);
+    }
+
     @Override
     public Optional<Film> getById(long id) {
-        return filmRepository.findById(id);
+        return filmCache.get(id, filmRepository::findById);
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return filmRepository.existsById(id);
+    }
+
+    @Override
+    public List<Film> getByIds(Collection<Long> ids) {
+        return filmCache.getAll(ids, filmRepository::findByIds);
     }
 
     @Override
@@ -34,12 +81,19 @@ public class DbFilmStorage implements FilmStorage {
 
     @Override
     public List<Film> findPopular(Integer count, Integer year, Long genreId) {
-        return filmRepository.findPopular(count, year, genreId);
+        if (!leaderboard.isReady()) {
+            return filmRepository.findPopular(count, year, genreId);
+        }
+        return getByIds(leaderboard.findTop(count, year, genreId));
     }
 
     @Override
     public List<Film> getCommon(long userId, long friendId) {
-        return filmRepository.findCommon(userId, friendId);
+        if (!leaderboard.isReady() || !likeStorage.isIndexReady()) {
+            return filmRepository.findCommon(userId, friendId);
+        }
+        long[] filmIds = likeStorage.findCommonFilmIds(userId, friendId);
+        return getByIds(leaderboard.rank(Arrays.stream(filmIds).boxed().toList()));
     }
 
     @Override
@@ -49,17 +103,45 @@ public class DbFilmStorage implements FilmStorage {
 
     @Override
     public List<Film> search(String query, SearchBy[] searchBy) {
-        return filmRepository.search(query, searchBy);
+        if (!searchIndex.isReady() || !leaderboard.isReady()) {
+            return filmRepository.search(query, searchBy);
+        }
+        return getByIds(leaderboard.rank(searchIndex.find(query, searchBy)));
+    }
+
+    @Override
+    public List<FilmSuggestion> suggest(String prefix, int limit) {
+        if (!searchIndex.isReady() || !leaderboard.isReady()) {
+            return filmRepository.search(prefix, SearchBy.values()).stream()
+                    .filter(film -> FilmSearchIndex.hasWordStartingWith(film.getName(), prefix)
+                            || film.getDirectors().stream()
+                                    .anyMatch(director -> FilmSearchIndex.hasWordStartingWith(director.getName(), prefix)))
+                    .limit(limit)
+                    .map(film -> new FilmSuggestion(film.getId(), film.getName()))
+                    .toList();
+        }
+        return searchIndex.suggest(prefix, limit, leaderboard::top);
     }
 
     @Override
     public Film create(Film film) {
-        return filmRepository.create(film);
+        Film createdFilm = filmRepository.create(film);
+        TransactionHooks.afterCommit(() -> {
+            leaderboard.put(createdFilm);
+            searchIndex.putFilm(createdFilm);
+        });
+        return createdFilm;
     }
 
     @Override
     public Film update(Film film) {
-        return filmRepository.update(film);
+        Film updatedFilm = filmRepository.update(film);
+        filmCache.invalidate(updatedFilm.getId());
+        TransactionHooks.afterCommit(() -> {
+            leaderboard.put(updatedFilm);
+            searchIndex.putFilm(updatedFilm);
+        });
+        return updatedFilm;
     }
 
     @Override
@@ -71,5 +153,10 @@ public class DbFilmStorage implements FilmStorage {
     public void delete(long filmId) {
         //Using Spring Data JPA
         filmRepository.deleteById(filmId);
+        filmCache.invalidate(filmId);
+        TransactionHooks.afterCommit(() -> {
+            leaderboard.remove(filmId);
+            searchIndex.removeFilm(filmId);
+        });
     }
 }
\ No newline at end of file
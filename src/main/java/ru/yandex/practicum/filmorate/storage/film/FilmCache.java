@@ -0,0 +1,240 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.utils.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * LRU-кэш фильмов по id. Загрузка из БД идет без блокировки, поэтому запись могла изменить фильм,
+ * пока он читался. Каждая инвалидация увеличивает версию полосы, к которой относится id, и прочитанный
+ * фильм попадает в кэш, только если версия его полосы не изменилась с начала чтения.
+ * Кэш разбит на сегменты со своей блокировкой и своей LRU-очередью, поэтому обращения к разным
+ * сегментам не ждут друг друга, а вытесняется давно не использованный фильм своего сегмента.
+ * Кэш хранит и отдает копии фильмов, чтобы изменения результата вызывающим не попадали к другим читателям.
+ */
+@Slf4j
+@Component
+public class FilmCache implements CacheStats {
+    private static final int STRIPES = 1024;
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final int maxSize;
+    private final Segment[] segments;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public FilmCache(@Value("${filmorate.cache.films.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        int segmentCount = Integer.highestOneBit(Math.clamp(maxSize / MIN_SEGMENT_SIZE, 1, MAX_SEGMENTS));
+        int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    public Optional<Film> get(long id, LongFunction<Optional<Film>> loader) {
+        Film cached = lookup(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long version = versions.get(stripe(id));
+        long startedAt = System.nanoTime();
+        Optional<Film> loaded = loader.apply(id);
+        loadNanos.add(System.nanoTime() - startedAt);
+        loaded.ifPresent(film -> putIfCurrent(film, version));
+        return loaded;
+    }
+
+    /**
+     * Фильмы в порядке переданных id; отсутствующие в кэше загружаются одним запросом.
+     */
+    public List<Film> getAll(Collection<Long> ids, Function<List<Long>, List<Film>> loader) {
+        Map<Long, Film> found = new HashMap<>();
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            Film cached = lookup(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        hits.add(found.size());
+
+        if (!missingIds.isEmpty()) {
+            misses.add(missingIds.size());
+            Map<Long, Long> startVersions = new HashMap<>();
+            missingIds.forEach(id -> startVersions.put(id, versions.get(stripe(id))));
+            long startedAt = System.nanoTime();
+            List<Film> loaded = loader.apply(List.copyOf(missingIds));
+            loadNanos.add(System.nanoTime() - startedAt);
+            loaded.forEach(film -> {
+                found.put(film.getId(), film);
+                putIfCurrent(film, startVersions.get(film.getId()));
+            });
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Убирает фильм из кэша сейчас и, если идет транзакция, еще раз после ее фиксации:
+     * до фиксации другие потоки еще могут прочитать и закэшировать старую версию.
+     */
+    public void invalidate(long id) {
+        evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public void logStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        log.info("Кэш фильмов: записей {} из {}, попаданий {}%, вытеснено {}, среднее время загрузки {} мкс",
+                size,
+                maxSize,
+                total == 0 ? 0 : hitCount * 100 / total,
+                evictions.sum(),
+                missCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(loadNanos.sum() / missCount));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Film lookup(long id) {
+        Segment segment = segmentFor(id);
+        Film cached;
+        synchronized (segment) {
+            cached = segment.get(id);
+        }
+        return cached == null ? null : copy(cached);
+    }
+
+    private void putIfCurrent(Film film, long version) {
+        Film cached = copy(film);
+        Segment segment = segmentFor(film.getId());
+        synchronized (segment) {
+            if (versions.get(stripe(film.getId())) == version) {
+                segment.put(film.getId(), cached);
+            }
+        }
+    }
+
+    private void evict(long id) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            versions.incrementAndGet(stripe(id));
+            segment.remove(id);
+        }
+    }
+
+    // Число сегментов делит число полос, так что все id одной полосы лежат в одном сегменте
+    private Segment segmentFor(long id) {
+        return segments[stripe(id) & (segments.length - 1)];
+    }
+
+    private static Film copy(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa() == null ? null : film.getMpa().toBuilder().build())
+                .genres(film.getGenres() == null ? null : film.getGenres().stream()
+                        .map(genre -> genre.toBuilder().build())
+                        .collect(Collectors.toCollection(ArrayList<Genre>::new)))
+                .directors(film.getDirectors() == null ? null : film.getDirectors().stream()
+                        .map(director -> Director.builder().id(director.getId()).name(director.getName()).build())
+                        .collect(Collectors.toCollection(ArrayList<Director>::new)))
+                .build();
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (STRIPES - 1);
+    }
+
+    private class Segment extends LinkedHashMap<Long, Film> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Film> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSuggestion;
+import ru.yandex.practicum.filmorate.model.SearchBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.BiFunction;
+
+/**
+ * Триграммный инвертированный индекс по названиям фильмов и именам режиссеров для поиска по подстроке.
+ * Строки хранятся уже в нижнем регистре. Поиск пересекает множества id триграмм запроса, начиная
+ * с самого короткого, и сверяет кандидатов с самой строкой; запрос короче триграммы проверяется перебором.
+ * Для подсказок при вводе строки также хранятся в упорядоченном словаре, ключи которого начинаются
+ * с каждого слова строки, так что поиск по префиксу слова сводится к выборке диапазона ключей.
+ */
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TextIndex titles = new TextIndex();
+    private final TextIndex directorNames = new TextIndex();
+    private final Map<Long, String> filmNames = new HashMap<>();
+    private final Map<Long, Set<Long>> filmIdsByDirector = new HashMap<>();
+    private final Map<Long, Set<Long>> directorIdsByFilm = new HashMap<>();
+    private volatile boolean filmsLoaded;
+    private volatile boolean directorsLoaded;
+
+    public boolean isReady() {
+        return filmsLoaded && directorsLoaded;
+    }
+
+    /**
+     * Перестраивает фильмовую часть индекса. Блокировка на запись держится до конца обхода,
+     * поэтому изменения фильмов, пришедшие во время перестроения, применяются после него.
+     */
+    public void rebuildFilms(Consumer<Consumer<Film>> forEachFilm) {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            filmNames.clear();
+            filmIdsByDirector.clear();
+            directorIdsByFilm.clear();
+            forEachFilm.accept(this::link);
+            filmsLoaded = true;
+            log.info("Поисковый индекс построен для {} фильмов", titles.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void loadDirectors(Collection<Director> directors) {
+        lock.writeLock().lock();
+        try {
+            directorNames.clear();
+            directors.forEach(director -> directorNames.put(director.getId(), director.getName()));
+            directorsLoaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Индексирует название фильма и его связи с режиссерами. Имена режиссеров берутся
+     * не из фильма, а из {@link #putDirector}, так как в фильме они могут быть не заполнены.
+     */
+    public void putFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            unlink(film.getId());
+            link(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        lock.writeLock().lock();
+        try {
+            unlink(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putDirector(long directorId, String name) {
+        lock.writeLock().lock();
+        try {
+            directorNames.put(directorId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDirector(long directorId) {
+        lock.writeLock().lock();
+        try {
+            directorNames.remove(directorId);
+            Set<Long> filmIds = filmIdsByDirector.remove(directorId);
+            if (filmIds != null) {
+                filmIds.forEach(filmId -> removeLink(directorIdsByFilm, filmId, directorId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            filmNames.clear();
+            directorNames.clear();
+            filmIdsByDirector.clear();
+            directorIdsByFilm.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id фильмов, у которых название или имя одного из режиссеров содержит запрос без учета регистра.
+     */
+    public Set<Long> find(String query, SearchBy[] searchBy) {
+        String normalizedQuery = normalize(query);
+        List<SearchBy> fields = Arrays.asList(searchBy);
+        Set<Long> filmIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (fields.contains(SearchBy.TITLE)) {
+                filmIds.addAll(titles.find(normalizedQuery));
+            }
+            if (fields.contains(SearchBy.DIRECTOR)) {
+                directorNames.find(normalizedQuery).forEach(directorId ->
+                        filmIds.addAll(filmIdsByDirector.getOrDefault(directorId, Set.of())));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return filmIds;
+    }
+
+    /**
+     * До limit фильмов, в названии или имени режиссера которых есть слово, начинающееся с префикса.
+     * Лучшие limit кандидатов выбирает функция top, названия фильмов берутся из индекса.
+     */
+    public List<FilmSuggestion> suggest(String prefix, int limit, BiFunction<Collection<Long>, Integer, List<Long>> top) {
+        String normalizedPrefix = normalize(prefix);
+        Set<Long> candidates = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            candidates.addAll(titles.findByPrefix(normalizedPrefix));
+            directorNames.findByPrefix(normalizedPrefix).forEach(directorId ->
+                    candidates.addAll(filmIdsByDirector.getOrDefault(directorId, Set.of())));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> filmIds = top.apply(candidates, limit);
+        List<FilmSuggestion> suggestions = new ArrayList<>(filmIds.size());
+        lock.readLock().lock();
+        try {
+            filmIds.forEach(filmId -> {
+                // фильм могли удалить, пока выбирались лучшие кандидаты
+                String name = filmNames.get(filmId);
+                if (name != null) {
+                    suggestions.add(new FilmSuggestion(filmId, name));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    /**
+     * Есть ли в тексте слово, начинающееся с префикса, без учета регистра.
+     */
+    public static boolean hasWordStartingWith(String text, String prefix) {
+        String normalizedPrefix = normalize(prefix);
+        return wordStarts(normalize(text)).stream().anyMatch(key -> key.startsWith(normalizedPrefix));
+    }
+
+    private void link(Film film) {
+        long filmId = film.getId();
+        titles.put(filmId, film.getName());
+        filmNames.put(filmId, film.getName());
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> {
+                filmIdsByDirector.computeIfAbsent(director.getId(), id -> new HashSet<>()).add(filmId);
+                directorIdsByFilm.computeIfAbsent(filmId, id -> new HashSet<>()).add(director.getId());
+            });
+        }
+    }
+
+    private void unlink(long filmId) {
+        titles.remove(filmId);
+        filmNames.remove(filmId);
+        Set<Long> directorIds = directorIdsByFilm.remove(filmId);
+        if (directorIds != null) {
+            directorIds.forEach(directorId -> removeLink(filmIdsByDirector, directorId, filmId));
+        }
+    }
+
+    private static <K> void removeLink(Map<K, Set<Long>> links, K key, long value) {
+        Set<Long> values = links.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                links.remove(key);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Хвосты строки, начинающиеся с каждого слова
+    private static Set<String> wordStarts(String text) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                keys.add(text.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    // Не потокобезопасен, доступ идет под блокировкой индекса
+    private static class TextIndex {
+        private final Map<Long, String> texts = new HashMap<>();
+        private final Map<String, Set<Long>> idsByGram = new HashMap<>();
+        private final NavigableMap<String, Set<Long>> idsByWordStart = new TreeMap<>();
+
+        void put(long id, String text) {
+            remove(id);
+            String normalized = normalize(text);
+            texts.put(id, normalized);
+            grams(normalized).forEach(gram -> idsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(id));
+            wordStarts(normalized).forEach(key -> idsByWordStart.computeIfAbsent(key, k -> new HashSet<>()).add(id));
+        }
+
+        void remove(long id) {
+            String normalized = texts.remove(id);
+            if (normalized != null) {
+                grams(normalized).forEach(gram -> removeLink(idsByGram, gram, id));
+                wordStarts(normalized).forEach(key -> removeLink(idsByWordStart, key, id));
+            }
+        }
+
+        List<Long> find(String normalizedQuery) {
+            List<Long> result = new ArrayList<>();
+            if (normalizedQuery.length() < GRAM_LENGTH) {
+                texts.forEach((id, text) -> {
+                    if (text.contains(normalizedQuery)) {
+                        result.add(id);
+                    }
+                });
+                return result;
+            }
+
+            List<Set<Long>> postings = new ArrayList<>();
+            for (String gram : grams(normalizedQuery)) {
+                Set<Long> ids = idsByGram.get(gram);
+                if (ids == null) {
+                    return result;
+                }
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            List<Set<Long>> others = postings.subList(1, postings.size());
+            for (Long id : postings.getFirst()) {
+                if (others.stream().allMatch(ids -> ids.contains(id)) && texts.get(id).contains(normalizedQuery)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        Set<Long> findByPrefix(String normalizedPrefix) {
+            Set<Long> result = new HashSet<>();
+            idsByWordStart.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(result::addAll);
+            return result;
+        }
+
+        int size() {
+            return texts.size();
+        }
+
+        void clear() {
+            texts.clear();
+            idsByGram.clear();
+            idsByWordStart.clear();
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSuggestion;
 import ru.yandex.practicum.filmorate.model.SearchBy;
 import ru.yandex.practicum.filmorate.model.SortBy;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> getAll();
 
+    List<Film> getPage(long afterId, int limit);
+
+    void forEach(Consumer<Film> action);
+
     Optional<Film> getById(long id);
 
+    boolean existsById(long id);
+
+    List<Film> getByIds(Collection<Long> ids);
+
     Optional<Film> findDuplicate(Film film);
 
     List<Film> findPopular(Integer count, Integer year, Long genreId);
@@ -22,6 +33,8 @@ public interface FilmStorage {
 
     List<Film> search(String query, SearchBy[] searchBy);
 
+    List<FilmSuggestion> suggest(String prefix, int limit);
+
     Film create(Film film);
 
     Film update(Film film);
@@ -8,14 +8,20 @@ import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
 import ru.yandex.practicum.filmorate.storage.likes.InMemoryLikeStorage;
 import ru.yandex.practicum.filmorate.storage.mparating.InMemoryMPARatingStorage;
 import ru.yandex.practicum.filmorate.model.SortBy;
+import ru.yandex.practicum.filmorate.utils.IdSequence;
+import ru.yandex.practicum.filmorate.utils.TopN;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
+    private final FilmSearchIndex searchIndex = new FilmSearchIndex();
     private final InMemoryLikeStorage likeStorage;
     private final InMemoryGenreStorage genreStorage;
     private final InMemoryMPARatingStorage mpaRatingStorage;
@@ -26,11 +32,38 @@ public class InMemoryFilmStorage implements FilmStorage {
         return films.values().stream().toList();
     }
 
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparing(Film::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void forEach(Consumer<Film> action) {
+        films.values().forEach(action);
+    }
+
     @Override
     public Optional<Film> getById(long id) {
         return films.get(id) == null ? Optional.empty() : Optional.of(films.get(id));
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return films.containsKey(id);
+    }
+
+    @Override
+    public List<Film> getByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public Optional<Film> findDuplicate(Film film) {
         return films.values().stream().filter(value -> value.equals(film)).findFirst();
@@ -53,35 +86,13 @@ public class InMemoryFilmStorage implements FilmStorage {
                 .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
                 .limit(count == null ? likedFilms.size() : count)
                 .map(Map.Entry::getKey)
-                .map(this::getById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::getByIds));
     }
 
     @Override
     public List<Film> getCommon(long userId, long friendId) {
-        List<Long> commonFilms = likeStorage.findCommon(userId, friendId).stream()
-                .map(Like::getFilmId)
-                .toList();
-
-        Map<Long, Long> likedFilms = new HashMap<>();
-        films.values()
-                .stream()
-                .filter(f -> commonFilms.contains(f.getId()))
-                .forEach(film -> likedFilms.put(film.getId(), 0L));
-
-        likedFilms.putAll(likeStorage.findByFilmIds(commonFilms).stream()
-                .collect(Collectors.groupingBy(Like::getFilmId, Collectors.counting())));
-
-        return likedFilms.entrySet()
-                .stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .map(Map.Entry::getKey)
-                .map(this::getById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        long[] filmIds = likeStorage.findCommonFilmIds(userId, friendId);
+        return getByIds(rankByLikes(Arrays.stream(filmIds).boxed().toList()));
     }
 
     @Override
@@ -101,19 +112,32 @@ public class InMemoryFilmStorage implements FilmStorage {
 
     @Override
     public List<Film> search(String query, SearchBy[] searchBy) {
-        return films.values().stream()
-                .filter(film -> Arrays.stream(searchBy).toList().contains(SearchBy.TITLE)
-                        && film.getName().toLowerCase().contains(query.toLowerCase())
-                || Arrays.stream(searchBy).toList().contains(SearchBy.DIRECTOR)
-                        && film.getDirectors().stream().anyMatch(director -> director.getName().toLowerCase().contains(query.toLowerCase())))
+        return getByIds(rankByLikes(searchIndex.find(query, searchBy)));
+    }
+
+    @Override
+    public List<FilmSuggestion> suggest(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit, (filmIds, top) -> TopN.select(filmIds, top, byLikes()));
+    }
+
+    private List<Long> rankByLikes(Collection<Long> filmIds) {
+        return filmIds.stream()
+                .sorted(byLikes())
                 .toList();
     }
 
+    private Comparator<Long> byLikes() {
+        return Comparator.comparingLong((Long filmId) -> likeStorage.findCountByFilmId(filmId))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder());
+    }
+
     @Override
     public Film create(Film film) {
-        film.setId(getNextId());
+        film.setId(idSequence.next());
         addRefNames(film);
         films.put(film.getId(), film);
+        index(film);
         return film;
     }
 
@@ -121,12 +145,15 @@ public class InMemoryFilmStorage implements FilmStorage {
     public Film update(Film film) {
         addRefNames(film);
         films.put(film.getId(), film);
+        index(film);
         return film;
     }
 
     @Override
     public void clear() {
         films.clear();
+        searchIndex.clear();
+        idSequence.reset();
     }
 
     private void addRefNames(Film film) {
@@ -154,17 +181,17 @@ public class InMemoryFilmStorage implements FilmStorage {
         }
     }
 
-    private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    // Имена режиссеров в фильме уже подставлены из хранилища режиссеров
+    private void index(Film film) {
+        searchIndex.putFilm(film);
+        film.getDirectors().stream()
+                .filter(director -> director.getName() != null)
+                .forEach(director -> searchIndex.putDirector(director.getId(), director.getName()));
     }
 
     @Override
     public void delete(long filmId) {
         films.remove(filmId);
+        searchIndex.removeFilm(filmId);
     }
 }
@@ -0,0 +1,264 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.dal.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.utils.TopN;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Рейтинг популярности фильмов, который держится в памяти и обновляется при каждом лайке.
+ * Фильмы упорядочены по (количество лайков по убыванию, id), дополнительно ведутся рейтинги
+ * по году выпуска и по жанру, поэтому выборка топ-N не требует обращения к БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PopularityLeaderboard {
+    private static final Comparator<Rank> RANK_ORDER = Comparator.comparingLong(Rank::likes)
+            .reversed()
+            .thenComparingLong(Rank::filmId);
+
+    private final FilmRepository filmRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Rank> overall = new TreeSet<>(RANK_ORDER);
+    private final Map<Integer, NavigableSet<Rank>> byYear = new HashMap<>();
+    private final Map<Long, NavigableSet<Rank>> byGenre = new HashMap<>();
+    private List<Runnable> pending;
+    private volatile boolean ready;
+
+    /**
+     * Строит рейтинг из БД. Чтение идет без блокировки, изменения, пришедшие за это время,
+     * записываются и повторяются поверх прочитанного. Лайк, зафиксированный перед самым
+     * началом чтения, может попасть и в прочитанное, и в повтор, так что счетчик фильма
+     * в редком случае расходится с БД на единицу до следующего перестроения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Entry> loaded = new HashMap<>();
+        try {
+            filmRepository.forEachRanking((filmId, year, likes, genreId) -> {
+                Entry entry = loaded.computeIfAbsent(filmId, id -> new Entry(id, year, likes, new HashSet<>()));
+                if (genreId != null) {
+                    entry.genreIds().add(genreId);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Runnable> changes = pending;
+            pending = null;
+            entries.clear();
+            overall.clear();
+            byYear.clear();
+            byGenre.clear();
+            loaded.values().forEach(this::link);
+            changes.forEach(Runnable::run);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Рейтинг популярности построен для {} фильмов", loaded.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> findTop(Integer count, Integer year, Long genreId) {
+        int limit = count == null ? Integer.MAX_VALUE : count;
+        lock.readLock().lock();
+        try {
+            NavigableSet<Rank> source = overall;
+            if (genreId != null) {
+                source = byGenre.get(genreId);
+            } else if (year != null) {
+                source = byYear.get(year);
+            }
+            if (source == null) {
+                return List.of();
+            }
+            if (genreId != null && year != null) {
+                NavigableSet<Rank> yearSource = byYear.get(year);
+                if (yearSource == null) {
+                    return List.of();
+                }
+                if (yearSource.size() < source.size()) {
+                    source = yearSource;
+                }
+            }
+
+            List<Long> result = new ArrayList<>(Math.min(limit, source.size()));
+            for (Rank rank : source) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                Entry entry = entries.get(rank.filmId());
+                if ((year == null || year.equals(entry.year()))
+                        && (genreId == null || entry.genreIds().contains(genreId))) {
+                    result.add(rank.filmId());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Переданные фильмы в порядке рейтинга; фильмы, которых нет в рейтинге, считаются без лайков.
+     */
+    public List<Long> rank(Collection<Long> filmIds) {
+        List<Rank> ranks = ranksOf(filmIds);
+        ranks.sort(RANK_ORDER);
+        return ranks.stream().map(Rank::filmId).toList();
+    }
+
+    /**
+     * Первые limit из переданных фильмов в порядке рейтинга, без сортировки всех переданных.
+     */
+    public List<Long> top(Collection<Long> filmIds, int limit) {
+        return TopN.select(ranksOf(filmIds), limit, RANK_ORDER).stream()
+                .map(Rank::filmId)
+                .toList();
+    }
+
+    private List<Rank> ranksOf(Collection<Long> filmIds) {
+        List<Rank> ranks = new ArrayList<>(filmIds.size());
+        lock.readLock().lock();
+        try {
+            filmIds.forEach(filmId -> {
+                Entry entry = entries.get(filmId);
+                ranks.add(entry == null ? new Rank(0, filmId) : entry.rank());
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ranks;
+    }
+
+    public void put(Film film) {
+        Set<Long> genreIds = new HashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream().map(Genre::getId).forEach(genreIds::add);
+        }
+        Integer year = film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+
+        apply(() -> {
+            Entry previous = unlink(film.getId());
+            long likes = previous == null ? 0 : previous.likes();
+            link(new Entry(film.getId(), year, likes, genreIds));
+        });
+    }
+
+    public void remove(long filmId) {
+        apply(() -> unlink(filmId));
+    }
+
+    public void increment(long filmId) {
+        adjust(filmId, 1);
+    }
+
+    public void decrement(long filmId) {
+        adjust(filmId, -1);
+    }
+
+    private void adjust(long filmId, long delta) {
+        apply(() -> {
+            Entry previous = unlink(filmId);
+            if (previous != null) {
+                link(new Entry(filmId, previous.year(), previous.likes() + delta, previous.genreIds()));
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(Entry entry) {
+        Rank rank = entry.rank();
+        entries.put(entry.filmId(), entry);
+        overall.add(rank);
+        if (entry.year() != null) {
+            byYear.computeIfAbsent(entry.year(), y -> new TreeSet<>(RANK_ORDER)).add(rank);
+        }
+        entry.genreIds().forEach(genreId -> byGenre.computeIfAbsent(genreId, g -> new TreeSet<>(RANK_ORDER)).add(rank));
+    }
+
+    private Entry unlink(long filmId) {
+        Entry entry = entries.remove(filmId);
+        if (entry == null) {
+            return null;
+        }
+        Rank rank = entry.rank();
+        overall.remove(rank);
+        if (entry.year() != null) {
+            removeRank(byYear, entry.year(), rank);
+        }
+        entry.genreIds().forEach(genreId -> removeRank(byGenre, genreId, rank));
+        return entry;
+    }
+
+    private static <K> void removeRank(Map<K, NavigableSet<Rank>> leaderboards, K key, Rank rank) {
+        NavigableSet<Rank> leaderboard = leaderboards.get(key);
+        if (leaderboard != null) {
+            leaderboard.remove(rank);
+            if (leaderboard.isEmpty()) {
+                leaderboards.remove(key);
+            }
+        }
+    }
+
+    private record Rank(long likes, long filmId) {
+    }
+
+    private record Entry(long filmId, Integer year, long likes, Set<Long> genreIds) {
+        Rank rank() {
+            return new Rank(likes, filmId);
+        }
+    }
+}
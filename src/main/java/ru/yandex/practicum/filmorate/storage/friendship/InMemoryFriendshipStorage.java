@@ -2,60 +2,100 @@ package ru.yandex.practicum.filmorate.storage.friendship;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.utils.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Для каждого пользователя хранится множество id тех, кого он добавил в друзья. Дружба user -> friend
+ * подтверждена, когда есть и обратная связь friend -> user, поэтому признак подтверждения не хранится отдельно.
+ * Множества не упаковывают id в Long; изменяются внутри compute, а читаются под блокировкой самого множества.
+ */
 @Component
 public class InMemoryFriendshipStorage implements FriendshipStorage {
-    private final Set<Friendship> friendships = new HashSet<>();
+    private final Map<Long, LongHashSet> friendIdsByUserId = new ConcurrentHashMap<>();
 
     @Override
     public List<Friendship> findAll() {
-        return new ArrayList<>(friendships);
+        List<Friendship> friendships = new ArrayList<>();
+        friendIdsByUserId.keySet().stream().sorted().forEach(userId -> friendships.addAll(findByUserId(userId)));
+        return friendships;
     }
 
     @Override
     public List<Friendship> findByUserId(long userId) {
-        return friendships.stream()
-                .filter(f -> f.getUserId() == userId)
+        return Arrays.stream(findFriendIds(userId))
+                .mapToObj(friendId -> new Friendship(userId, friendId, isLinked(friendId, userId)))
                 .toList();
     }
 
-    @Override
-    public void create(long userId, long friendId) {
-        Optional<Friendship> friendshipOp = friendships.stream()
-                .filter(f -> f.getUserId() == userId && f.getFriendId() == friendId)
-                .findFirst();
-
-        Optional<Friendship> friendFriendshipOp = friendships.stream()
-                .filter(f -> f.getUserId() == friendId && f.getFriendId() == userId)
-                .findFirst();
-
-        if ((friendshipOp.isEmpty())) {
-            friendFriendshipOp.ifPresent(friendship -> friendship.setAccepted(true));
-            if (friendFriendshipOp.isPresent()) {
-                friendships.add(new Friendship(userId, friendId, true));
+    /**
+     * Общие друзья по возрастанию id: слияние двух отсортированных списков друзей.
+     */
+    public List<Long> findCommonFriendIds(long userId, long otherId) {
+        long[] friendIds = findFriendIds(userId);
+        long[] otherFriendIds = findFriendIds(otherId);
+        List<Long> commonFriendIds = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < friendIds.length && j < otherFriendIds.length) {
+            if (friendIds[i] < otherFriendIds[j]) {
+                i++;
+            } else if (friendIds[i] > otherFriendIds[j]) {
+                j++;
             } else {
-                friendships.add(new Friendship(userId, friendId, false));
+                commonFriendIds.add(friendIds[i]);
+                i++;
+                j++;
             }
         }
+        return commonFriendIds;
     }
 
     @Override
-    public void remove(long userId, long friendId) {
-        Optional<Friendship> friendshipOp = friendships.stream()
-                .filter(f -> f.getUserId() == userId && f.getFriendId() == friendId)
-                .findFirst();
-        friendshipOp.ifPresent(friendships::remove);
+    public void create(long userId, long friendId) {
+        friendIdsByUserId.compute(userId, (id, friendIds) -> {
+            LongHashSet result = friendIds == null ? new LongHashSet() : friendIds;
+            synchronized (result) {
+                result.add(friendId);
+            }
+            return result;
+        });
+    }
 
-        friendshipOp = friendships.stream()
-                .filter(f -> f.getUserId() == friendId && f.getFriendId() == userId)
-                .findFirst();
-        friendshipOp.ifPresent(friendship -> friendship.setAccepted(false));
+    @Override
+    public void remove(long userId, long friendId) {
+        friendIdsByUserId.computeIfPresent(userId, (id, friendIds) -> {
+            synchronized (friendIds) {
+                friendIds.remove(friendId);
+                return friendIds.isEmpty() ? null : friendIds;
+            }
+        });
     }
 
     @Override
     public void clear() {
-        friendships.clear();
+        friendIdsByUserId.clear();
+    }
+
+    private long[] findFriendIds(long userId) {
+        LongHashSet friendIds = friendIdsByUserId.get(userId);
+        if (friendIds == null) {
+            return new long[0];
+        }
+        synchronized (friendIds) {
+            return friendIds.toSortedArray();
+        }
+    }
+
+    private boolean isLinked(long userId, long friendId) {
+        LongHashSet friendIds = friendIdsByUserId.get(userId);
+        if (friendIds == null) {
+            return false;
+        }
+        synchronized (friendIds) {
+            return friendIds.contains(friendId);
+        }
     }
 }
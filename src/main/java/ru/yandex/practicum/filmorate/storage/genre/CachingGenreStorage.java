@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.CachingReferenceStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@Primary
+public class CachingGenreStorage extends CachingReferenceStorage<Genre> implements GenreStorage {
+    final DbGenreStorage genreStorage;
+
+    public CachingGenreStorage(DbGenreStorage genreStorage) {
+        super("genres", Genre::getId);
+        this.genreStorage = genreStorage;
+    }
+
+    @Override
+    protected List<Genre> loadAll() {
+        return genreStorage.getAll();
+    }
+
+    @Override
+    public List<Genre> getAll() {
+        return cache.getAll(genreStorage::getAll);
+    }
+
+    @Override
+    public Optional<Genre> getById(long id) {
+        return cache.get(id, genreStorage::getById);
+    }
+
+    @Override
+    public List<Genre> getByIds(Collection<Long> ids) {
+        return cache.getByIds(ids, genreStorage::getByIds);
+    }
+}
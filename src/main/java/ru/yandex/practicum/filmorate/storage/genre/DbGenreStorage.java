@@ -1,16 +1,15 @@
 package ru.yandex.practicum.filmorate.storage.genre;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.dal.repository.GenreRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Component
-@Primary
 @RequiredArgsConstructor
 public class DbGenreStorage implements GenreStorage {
     final GenreRepository genreRepository;
@@ -24,4 +23,9 @@ public class DbGenreStorage implements GenreStorage {
     public Optional<Genre> getById(long id) {
         return genreRepository.findById(id);
     }
+
+    @Override
+    public List<Genre> getByIds(Collection<Long> ids) {
+        return genreRepository.findByIds(ids);
+    }
 }
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.genre;
 
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +10,6 @@ public interface GenreStorage {
     List<Genre> getAll();
 
     Optional<Genre> getById(long id);
+
+    List<Genre> getByIds(Collection<Long> ids);
 }
@@ -3,9 +3,11 @@ package ru.yandex.practicum.filmorate.storage.genre;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Component
@@ -30,4 +32,12 @@ public class InMemoryGenreStorage implements GenreStorage {
     public Optional<Genre> getById(long id) {
         return genres.get(id) == null ? Optional.empty() : Optional.of(genres.get(id));
     }
+
+    @Override
+    public List<Genre> getByIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(genres::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
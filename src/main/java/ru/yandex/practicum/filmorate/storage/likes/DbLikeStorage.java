@@ -1,18 +1,45 @@
 package ru.yandex.practicum.filmorate.storage.likes;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.dal.repository.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.film.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.utils.TransactionHooks;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Component
 @Primary
 @RequiredArgsConstructor
 public class DbLikeStorage implements LikeStorage {
     final LikeRepository likeRepository;
+    final PopularityLeaderboard leaderboard;
+    final LikeIndex likeIndex = new LikeIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        Map<Long, List<Long>> filmIdsByUserId = new HashMap<>();
+        likeIndex.load(() -> {
+            likeRepository.forEach((userId, filmId) ->
+                    filmIdsByUserId.computeIfAbsent(userId, id -> new ArrayList<>()).add(filmId));
+            return filmIdsByUserId;
+        });
+        log.info("Индекс лайков построен для {} пользователей", filmIdsByUserId.size());
+    }
+
+    @Override
+    public boolean isIndexReady() {
+        return likeIndex.isReady();
+    }
 
     @Override
     public List<Like> findAll() {
@@ -25,18 +52,58 @@ public class DbLikeStorage implements LikeStorage {
     }
 
     @Override
-    public List<Like> findCommon(long userId, long friendId) {
-        return likeRepository.findCommon(userId, friendId);
+    public long[] findFilmIdsByUserId(long userId) {
+        return likeIndex.findFilmIds(userId);
+    }
+
+    @Override
+    public long[] findCommonFilmIds(long userId, long friendId) {
+        return LikeIndex.intersection(likeIndex.findFilmIds(userId), likeIndex.findFilmIds(friendId));
+    }
+
+    @Override
+    public long[] findUserIdsByFilmId(long filmId) {
+        return likeIndex.findUserIds(filmId);
+    }
+
+    @Override
+    public long[] findLikingUserIds() {
+        return likeIndex.findLikingUserIds();
     }
 
     @Override
     public void create(long userId, long filmId) {
-        likeRepository.create(userId, filmId);
+        if (likeRepository.create(userId, filmId)) {
+            TransactionHooks.afterCommit(() -> {
+                likeIndex.add(userId, filmId);
+                leaderboard.increment(filmId);
+            });
+        }
     }
 
     @Override
     public void remove(long userId, long filmId) {
-        likeRepository.remove(userId, filmId);
+        if (likeRepository.remove(userId, filmId)) {
+            TransactionHooks.afterCommit(() -> {
+                likeIndex.remove(userId, filmId);
+                leaderboard.decrement(filmId);
+            });
+        }
+    }
+
+    @Override
+    public void removeByUserId(long userId) {
+        List<Long> filmIds = likeRepository.removeByUserId(userId);
+        TransactionHooks.afterCommit(() -> {
+            filmIds.forEach(leaderboard::decrement);
+            likeIndex.removeUser(userId);
+        });
+    }
+
+    @Override
+    public void removeByFilmId(long filmId) {
+        likeRepository.removeByFilmId(filmId);
+        TransactionHooks.afterCommit(() -> likeIndex.removeFilm(filmId));
     }
 
     @Override
@@ -3,55 +3,90 @@ package ru.yandex.practicum.filmorate.storage.likes;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Like;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class InMemoryLikeStorage implements LikeStorage {
-    final Set<Like> likes = new HashSet<>();
+    final LikeIndex likeIndex = new LikeIndex();
 
     @Override
     public List<Like> findAll() {
-        return new ArrayList<>(likes);
+        List<Like> likes = new ArrayList<>();
+        for (long userId : likeIndex.findLikingUserIds()) {
+            addUserLikes(likes, userId);
+        }
+        return likes;
     }
 
     @Override
     public List<Like> findByFilmIds(List<Long> filmIds) {
-        return likes.stream()
-                .filter(like -> filmIds.contains(like.getFilmId()))
-                .toList();
+        List<Like> likes = new ArrayList<>();
+        filmIds.stream().distinct().forEach(filmId -> {
+            for (long userId : likeIndex.findUserIds(filmId)) {
+                likes.add(new Like(userId, filmId));
+            }
+        });
+        return likes;
+    }
+
+    @Override
+    public long[] findFilmIdsByUserId(long userId) {
+        return likeIndex.findFilmIds(userId);
+    }
+
+    @Override
+    public long[] findCommonFilmIds(long userId, long friendId) {
+        return LikeIndex.intersection(likeIndex.findFilmIds(userId), likeIndex.findFilmIds(friendId));
+    }
+
+    @Override
+    public long[] findUserIdsByFilmId(long filmId) {
+        return likeIndex.findUserIds(filmId);
+    }
+
+    @Override
+    public long[] findLikingUserIds() {
+        return likeIndex.findLikingUserIds();
     }
 
     @Override
-    public List<Like> findCommon(long userId, long friendId) {
-        return likes.stream().filter(like -> like.getUserId() == userId || like.getUserId() == friendId).toList();
+    public boolean isIndexReady() {
+        return true;
     }
 
     public Long findCountByFilmId(long filmId) {
-        return likes.stream()
-                .filter(f -> f.getFilmId() == filmId)
-                .count();
+        return (long) likeIndex.count(filmId);
     }
 
     @Override
     public void create(long userId, long filmId) {
-        Optional<Like> likeOp = likes.stream()
-                .filter(f -> f.getUserId() == userId && f.getFilmId() == filmId)
-                .findFirst();
-        if ((likeOp.isEmpty())) {
-            likes.add(new Like(userId, filmId));
-        }
+        likeIndex.add(userId, filmId);
     }
 
     @Override
     public void remove(long userId, long filmId) {
-        Optional<Like> likeOp = likes.stream()
-                .filter(f -> f.getUserId() == userId && f.getFilmId() == filmId)
-                .findFirst();
-        likeOp.ifPresent(likes::remove);
+        likeIndex.remove(userId, filmId);
+    }
+
+    @Override
+    public void removeByUserId(long userId) {
+        likeIndex.removeUser(userId);
+    }
+
+    @Override
+    public void removeByFilmId(long filmId) {
+        likeIndex.removeFilm(filmId);
     }
 
     @Override
     public void clear() {
-        likes.clear();
+        likeIndex.clear();
+    }
+
+    private void addUserLikes(List<Like> likes, long userId) {
+        for (long filmId : likeIndex.findFilmIds(userId)) {
+            likes.add(new Like(userId, filmId));
+        }
     }
 }
@@ -0,0 +1,302 @@
+package ru.yandex.practicum.filmorate.storage.likes;
+
+import ru.yandex.practicum.filmorate.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс лайков в памяти: для пользователя хранится множество id фильмов, для фильма — множество
+ * id пользователей. Лайк добавляется и удаляется за O(1) под блокировкой только своих ключей,
+ * количество лайков фильма читается без блокировки. Отсортированный массив id строится при первом
+ * чтении после изменения и переиспользуется до следующего изменения. Изменения берут блокировку
+ * на чтение, она нужна только для того, чтобы не потерять их во время загрузки из БД.
+ */
+public class LikeIndex {
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, Postings> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Postings> usersByFilm = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private List<Runnable> pending;
+    private volatile boolean ready;
+
+    /**
+     * Индекс заполнен из БД; до этого он отражает только изменения, пришедшие после старта.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long[] findFilmIds(long userId) {
+        Postings films = filmsByUser.get(userId);
+        return films == null ? EMPTY : films.toSortedArray();
+    }
+
+    public long[] findUserIds(long filmId) {
+        Postings users = usersByFilm.get(filmId);
+        return users == null ? EMPTY : users.toSortedArray();
+    }
+
+    public int count(long filmId) {
+        Postings users = usersByFilm.get(filmId);
+        return users == null ? 0 : users.size();
+    }
+
+    public long[] findLikingUserIds() {
+        return filmsByUser.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    public boolean add(long userId, long filmId) {
+        return update(() -> addLike(userId, filmId));
+    }
+
+    public boolean remove(long userId, long filmId) {
+        return update(() -> removeLike(userId, filmId));
+    }
+
+    public long[] removeUser(long userId) {
+        lock.readLock().lock();
+        try {
+            record(() -> unlinkUser(userId));
+            return unlinkUser(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] removeFilm(long filmId) {
+        lock.readLock().lock();
+        try {
+            record(() -> unlinkFilm(filmId));
+            return unlinkFilm(filmId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void load(Map<Long, List<Long>> filmIdsByUserId) {
+        load(() -> filmIdsByUserId);
+    }
+
+    /**
+     * Заполняет индекс снимком лайков. Изменения, пришедшие, пока снимок читается, записываются
+     * и повторяются поверх него; повторное применение лайка или его удаления ничего не меняет,
+     * поэтому изменения, уже попавшие в снимок, не искажают результат.
+     */
+    public void load(Supplier<Map<Long, List<Long>>> snapshot) {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, List<Long>> filmIdsByUserId;
+        try {
+            filmIdsByUserId = snapshot.get();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Runnable> changes = pending;
+            pending = null;
+            filmsByUser.clear();
+            usersByFilm.clear();
+            filmIdsByUserId.forEach((userId, filmIds) -> filmIds.forEach(filmId -> addLike(userId, filmId)));
+            changes.forEach(Runnable::run);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean update(Supplier<Boolean> change) {
+        lock.readLock().lock();
+        try {
+            record(change::get);
+            return change.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ссылка на список меняется под блокировкой на запись, а дописывают в него параллельно под блокировкой на чтение
+    private void record(Runnable change) {
+        List<Runnable> changes = pending;
+        if (changes != null) {
+            synchronized (changes) {
+                changes.add(change);
+            }
+        }
+    }
+
+    /**
+     * Обе стороны лайка меняются, пока удерживается ключ пользователя, поэтому лайки одного
+     * пользователя применяются по очереди, а лайки разных пользователей — параллельно.
+     */
+    private boolean addLike(long userId, long filmId) {
+        boolean[] added = {false};
+        filmsByUser.compute(userId, (id, films) -> {
+            Postings postings = films == null ? new Postings() : films;
+            if (postings.add(filmId)) {
+                added[0] = true;
+                usersByFilm.compute(filmId, (key, users) -> addTo(users, userId));
+            }
+            return postings;
+        });
+        return added[0];
+    }
+
+    private boolean removeLike(long userId, long filmId) {
+        boolean[] removed = {false};
+        filmsByUser.computeIfPresent(userId, (id, films) -> {
+            if (films.remove(filmId)) {
+                removed[0] = true;
+                usersByFilm.computeIfPresent(filmId, (key, users) -> removeFrom(users, userId));
+            }
+            return films.isEmpty() ? null : films;
+        });
+        return removed[0];
+    }
+
+    private long[] unlinkUser(long userId) {
+        Postings films = filmsByUser.remove(userId);
+        if (films == null) {
+            return EMPTY;
+        }
+        long[] filmIds = films.toSortedArray();
+        for (long filmId : filmIds) {
+            usersByFilm.computeIfPresent(filmId, (key, users) -> removeFrom(users, userId));
+        }
+        return filmIds;
+    }
+
+    private long[] unlinkFilm(long filmId) {
+        Postings users = usersByFilm.remove(filmId);
+        if (users == null) {
+            return EMPTY;
+        }
+        long[] userIds = users.toSortedArray();
+        for (long userId : userIds) {
+            filmsByUser.computeIfPresent(userId, (key, films) -> removeFrom(films, filmId));
+        }
+        return userIds;
+    }
+
+    /**
+     * Элементы отсортированного массива source, которых нет в отсортированном массиве excluded.
+     */
+    public static long[] difference(long[] source, long[] excluded) {
+        long[] result = new long[source.length];
+        int size = 0;
+        int j = 0;
+        for (long value : source) {
+            while (j < excluded.length && excluded[j] < value) {
+                j++;
+            }
+            if (j == excluded.length || excluded[j] != value) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Общие элементы двух отсортированных массивов, найденные одним слиянием.
+     */
+    public static long[] intersection(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static Postings addTo(Postings postings, long value) {
+        Postings result = postings == null ? new Postings() : postings;
+        result.add(value);
+        return result;
+    }
+
+    private static Postings removeFrom(Postings postings, long value) {
+        postings.remove(value);
+        return postings.isEmpty() ? null : postings;
+    }
+
+    private static final class Postings {
+        private final LongHashSet ids = new LongHashSet();
+        private long[] sorted = EMPTY;
+        private boolean stale;
+        private volatile int size;
+
+        synchronized boolean add(long id) {
+            if (!ids.add(id)) {
+                return false;
+            }
+            stale = true;
+            size = ids.size();
+            return true;
+        }
+
+        synchronized boolean remove(long id) {
+            if (!ids.remove(id)) {
+                return false;
+            }
+            stale = true;
+            size = ids.size();
+            return true;
+        }
+
+        synchronized long[] toSortedArray() {
+            if (stale) {
+                sorted = ids.toSortedArray();
+                stale = false;
+            }
+            return sorted;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
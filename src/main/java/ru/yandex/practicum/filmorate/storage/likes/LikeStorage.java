@@ -10,11 +10,26 @@ public interface LikeStorage {
 
     List<Like> findByFilmIds(List<Long> filmIds);
 
-    List<Like> findCommon(long userId, long friendId);
+    long[] findFilmIdsByUserId(long userId);
+
+    long[] findCommonFilmIds(long userId, long friendId);
+
+    long[] findUserIdsByFilmId(long filmId);
+
+    long[] findLikingUserIds();
 
     void create(long userId, long filmId);
 
     void remove(long userId, long filmId);
 
+    void removeByUserId(long userId);
+
+    void removeByFilmId(long filmId);
+
     void clear();
+
+    /**
+     * Индекс лайков в памяти заполнен; до этого findFilmIdsByUserId и похожие методы могут вернуть не все лайки.
+     */
+    boolean isIndexReady();
 }
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage.mparating;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.MPARating;
+import ru.yandex.practicum.filmorate.storage.CachingReferenceStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@Primary
+public class CachingMPARatingStorage extends CachingReferenceStorage<MPARating> implements MPARatingStorage {
+    final DbMPARatingStorage mpaRatingStorage;
+
+    public CachingMPARatingStorage(DbMPARatingStorage mpaRatingStorage) {
+        super("mpa_ratings", MPARating::getId);
+        this.mpaRatingStorage = mpaRatingStorage;
+    }
+
+    @Override
+    protected List<MPARating> loadAll() {
+        return mpaRatingStorage.getAll();
+    }
+
+    @Override
+    public List<MPARating> getAll() {
+        return cache.getAll(mpaRatingStorage::getAll);
+    }
+
+    @Override
+    public Optional<MPARating> getById(long id) {
+        return cache.get(id, mpaRatingStorage::getById);
+    }
+}
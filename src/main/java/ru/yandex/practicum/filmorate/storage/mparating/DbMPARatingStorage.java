@@ -1,7 +1,6 @@
 package ru.yandex.practicum.filmorate.storage.mparating;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.MPARating;
 import ru.yandex.practicum.filmorate.storage.dal.repository.MPARatingRepository;
@@ -10,7 +9,6 @@ import java.util.List;
 import java.util.Optional;
 
 @Component
-@Primary
 @RequiredArgsConstructor
 public class DbMPARatingStorage implements MPARatingStorage {
     final MPARatingRepository mpaRatingRepository;
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.storage.recommendation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.RecommendationMode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Предрасчитанные рекомендации: для каждого пользователя по массиву id фильмов на каждый режим.
+ * Снимок подменяется целиком после фонового пересчета и считается устаревшим спустя maxAge.
+ */
+@Component
+public class RecommendationStore {
+    private final Duration maxAge;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Instant.EPOCH);
+
+    public RecommendationStore(@Value("${filmorate.recommendations.max-age:PT15M}") Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Optional<long[]> find(long userId, RecommendationMode mode) {
+        Snapshot current = snapshot;
+        if (current.computedAt().plus(maxAge).isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        long[][] filmIds = current.filmIdsByUserId().get(userId);
+        return filmIds == null ? Optional.empty() : Optional.of(filmIds[mode.ordinal()]);
+    }
+
+    public Instant getComputedAt() {
+        return snapshot.computedAt();
+    }
+
+    public void publish(Map<Long, long[][]> filmIdsByUserId, Instant computedAt) {
+        snapshot = new Snapshot(filmIdsByUserId, computedAt);
+    }
+
+    private record Snapshot(Map<Long, long[][]> filmIdsByUserId, Instant computedAt) {
+    }
+}
@@ -25,6 +25,11 @@ public class DbReviewStorage implements ReviewStorage {
         return reviewRepository.findById(id);
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return reviewRepository.existsById(id);
+    }
+
     @Override
     public Review create(Review review) {
         return reviewRepository.create(review);
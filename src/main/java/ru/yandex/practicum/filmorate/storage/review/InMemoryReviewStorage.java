@@ -2,20 +2,25 @@ package ru.yandex.practicum.filmorate.storage.review;
 
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.utils.IdSequence;
 
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Оценки отзыва меняются внутри compute по id отзыва, поэтому изменение оценок и пересчет полезности
+ * выполняются атомарно и блокируют только сегмент таблицы с этим отзывом.
+ */
 @Component
 public class InMemoryReviewStorage implements ReviewStorage {
-    private final Map<Long, Review> reviews = new HashMap<>();
-    private final Map<Long, Set<Long>> likes = new HashMap<>();
-    private final Map<Long, Set<Long>> dislikes = new HashMap<>();
+    private final Map<Long, Review> reviews = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> likes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> dislikes = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
 
     @Override
     public List<Review> getAll(Long filmId, int count) {
@@ -31,13 +36,18 @@ public class InMemoryReviewStorage implements ReviewStorage {
         return Optional.ofNullable(reviews.get(id));
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return reviews.containsKey(id);
+    }
+
     @Override
     public Review create(Review review) {
-        review.setReviewId(getNextId());
+        review.setReviewId(idSequence.next());
         review.setUseful(0);
+        likes.put(review.getReviewId(), ConcurrentHashMap.newKeySet());
+        dislikes.put(review.getReviewId(), ConcurrentHashMap.newKeySet());
         reviews.put(review.getReviewId(), review);
-        likes.put(review.getReviewId(), new HashSet<>());
-        dislikes.put(review.getReviewId(), new HashSet<>());
         return review;
     }
 
@@ -56,28 +66,28 @@ public class InMemoryReviewStorage implements ReviewStorage {
 
     @Override
     public void addLike(long reviewId, long userId) {
-        likes.get(reviewId).add(userId);
-        dislikes.get(reviewId).remove(userId);
-        updateUseful(reviewId);
+        rate(reviewId, () -> {
+            likes.get(reviewId).add(userId);
+            dislikes.get(reviewId).remove(userId);
+        });
     }
 
     @Override
     public void addDislike(long reviewId, long userId) {
-        dislikes.get(reviewId).add(userId);
-        likes.get(reviewId).remove(userId);
-        updateUseful(reviewId);
+        rate(reviewId, () -> {
+            dislikes.get(reviewId).add(userId);
+            likes.get(reviewId).remove(userId);
+        });
     }
 
     @Override
     public void removeLike(long reviewId, long userId) {
-        likes.get(reviewId).remove(userId);
-        updateUseful(reviewId);
+        rate(reviewId, () -> likes.get(reviewId).remove(userId));
     }
 
     @Override
     public void removeDislike(long reviewId, long userId) {
-        dislikes.get(reviewId).remove(userId);
-        updateUseful(reviewId);
+        rate(reviewId, () -> dislikes.get(reviewId).remove(userId));
     }
 
     @Override
@@ -85,19 +95,14 @@ public class InMemoryReviewStorage implements ReviewStorage {
         reviews.clear();
         likes.clear();
         dislikes.clear();
+        idSequence.reset();
     }
 
-    private long getNextId() {
-        long currentMaxId = reviews.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
-    }
-
-    private void updateUseful(long reviewId) {
-        Review review = reviews.get(reviewId);
-        review.setUseful(likes.get(reviewId).size() - dislikes.get(reviewId).size());
+    private void rate(long reviewId, Runnable change) {
+        reviews.computeIfPresent(reviewId, (id, review) -> {
+            change.run();
+            review.setUseful(likes.get(id).size() - dislikes.get(id).size());
+            return review;
+        });
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,8 @@ public interface ReviewStorage {
 
     Optional<Review> getById(long id);
 
+    boolean existsById(long id);
+
     Review create(Review review);
 
     Review update(Review review);
@@ -8,6 +8,7 @@ import ru.yandex.practicum.filmorate.storage.dal.repository.UserRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 @Primary
@@ -20,11 +21,26 @@ public class DbUserStorage implements UserStorage {
         return userRepository.findAll();
     }
 
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        return userRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<User> action) {
+        userRepository.forEach(action);
+    }
+
     @Override
     public Optional<User> getById(long id) {
         return userRepository.findById(id);
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return userRepository.existsById(id);
+    }
+
     @Override
     public Optional<User> getByEmail(String email) {
         return userRepository.findByEmail(email);
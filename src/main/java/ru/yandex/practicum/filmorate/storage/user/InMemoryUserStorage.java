@@ -2,18 +2,29 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+import ru.yandex.practicum.filmorate.utils.IdSequence;
 
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    static final String EMAIL_IN_USE_MESSAGE = "Этот email уже используется";
+    static final String LOGIN_IN_USE_MESSAGE = "Этот логин уже используется";
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByLogin = new ConcurrentHashMap<>();
+    private final IdSequence idSequence = new IdSequence();
     private final InMemoryFriendshipStorage friendshipStorage;
 
     @Override
@@ -21,35 +32,58 @@ public class InMemoryUserStorage implements UserStorage {
         return users.values().stream().toList();
     }
 
+    @Override
+    public List<User> getPage(long afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void forEach(Consumer<User> action) {
+        users.values().forEach(action);
+    }
+
     @Override
     public Optional<User> getById(long id) {
         return users.get(id) == null ? Optional.empty() : Optional.of(users.get(id));
     }
 
+    @Override
+    public boolean existsById(long id) {
+        return users.containsKey(id);
+    }
+
     @Override
     public Optional<User> getByEmail(String email) {
-        return users.values().stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst();
+        return findByKey(userIdsByEmail, email);
     }
 
     @Override
     public Optional<User> getByLogin(String login) {
-        return users.values().stream()
-                .filter(user -> user.getLogin().equals(login))
-                .findFirst();
+        return findByKey(userIdsByLogin, login);
     }
 
     @Override
     public User create(User user) {
-        user.setId(getNextId());
+        user.setId(idSequence.next());
+        claimKeys(user, null);
         users.put(user.getId(), user);
         return user;
     }
 
     @Override
     public User update(User user) {
-        users.put(user.getId(), user);
+        users.compute(user.getId(), (id, previous) -> {
+            claimKeys(user, previous);
+            if (previous != null) {
+                releaseChangedKey(userIdsByEmail, id, previous.getEmail(), user.getEmail());
+                releaseChangedKey(userIdsByLogin, id, previous.getLogin(), user.getLogin());
+            }
+            return user;
+        });
         return user;
     }
 
@@ -66,27 +100,71 @@ public class InMemoryUserStorage implements UserStorage {
 
     @Override
     public List<User> findCommonFriends(long id, long otherId) {
-        List<User> friends = findFriendsById(id);
-        List<User> otherFriends = findFriendsById(otherId);
-        return friends.stream().filter(otherFriends::contains).toList();
+        return friendshipStorage.findCommonFriendIds(id, otherId).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
     public void clear() {
         users.clear();
-    }
-
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        userIdsByEmail.clear();
+        userIdsByLogin.clear();
+        idSequence.reset();
     }
 
     @Override
     public void delete(long userId) {
-        users.remove(userId);
+        User user = users.remove(userId);
+        if (user != null) {
+            release(userIdsByEmail, userId, user.getEmail());
+            release(userIdsByLogin, userId, user.getLogin());
+        }
+    }
+
+    private Optional<User> findByKey(Map<String, Long> index, String key) {
+        Long userId = key == null ? null : index.get(key);
+        return userId == null ? Optional.empty() : Optional.ofNullable(users.get(userId));
+    }
+
+    /**
+     * Занимает email и логин пользователя в индексах через putIfAbsent, поэтому из двух одновременных
+     * регистраций с одинаковым email или логином успешна только одна.
+     */
+    private void claimKeys(User user, User previous) {
+        long userId = user.getId();
+        boolean emailClaimed = claim(userIdsByEmail, userId, user.getEmail(), EMAIL_IN_USE_MESSAGE);
+        try {
+            claim(userIdsByLogin, userId, user.getLogin(), LOGIN_IN_USE_MESSAGE);
+        } catch (DuplicatedDataException e) {
+            if (emailClaimed && (previous == null || !user.getEmail().equals(previous.getEmail()))) {
+                release(userIdsByEmail, userId, user.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    private static boolean claim(Map<String, Long> index, long userId, String key, String message) {
+        if (key == null) {
+            return false;
+        }
+        Long ownerId = index.putIfAbsent(key, userId);
+        if (ownerId != null && ownerId != userId) {
+            throw new DuplicatedDataException(message);
+        }
+        return true;
+    }
+
+    private static void releaseChangedKey(Map<String, Long> index, long userId, String previousKey, String key) {
+        if (previousKey != null && !previousKey.equals(key)) {
+            release(index, userId, previousKey);
+        }
+    }
+
+    private static void release(Map<String, Long> index, long userId, String key) {
+        if (key != null) {
+            index.remove(key, userId);
+        }
     }
 }
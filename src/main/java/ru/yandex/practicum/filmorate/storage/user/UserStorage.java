@@ -4,12 +4,19 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> getAll();
 
+    List<User> getPage(long afterId, int limit);
+
+    void forEach(Consumer<User> action);
+
     Optional<User> getById(long id);
 
+    boolean existsById(long id);
+
     Optional<User> getByEmail(String email);
 
     Optional<User> getByLogin(String login);
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.utils;
+
+/**
+ * Кэш, который умеет выводить в лог свою статистику. Вывод для всех кэшей запускает CacheStatsReporter.
+ */
+public interface CacheStats {
+    void logStats();
+}
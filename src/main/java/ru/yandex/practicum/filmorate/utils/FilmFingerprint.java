@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class FilmFingerprint {
+    private FilmFingerprint() {
+
+    }
+
+    /**
+     * SHA-256 от канонического представления фильма: название, дата релиза, рейтинг и отсортированные id жанров.
+     */
+    public static String of(Film film) {
+        String genreIds = film.getGenres() == null ? "" : film.getGenres().stream()
+                .map(Genre::getId)
+                .filter(Objects::nonNull)
+                .sorted()
+                .distinct()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        String canonical = String.join("\u0000",
+                film.getName(),
+                String.valueOf(film.getReleaseDate()),
+                film.getMpa() == null ? "" : String.valueOf(film.getMpa().getId()),
+                genreIds);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
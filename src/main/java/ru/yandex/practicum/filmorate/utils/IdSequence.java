@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор id для хранилищ в памяти: выдает 1, 2, 3, ... за O(1) без обхода сохраненных записей.
+ */
+public class IdSequence {
+    final AtomicLong current = new AtomicLong();
+
+    public long next() {
+        return current.incrementAndGet();
+    }
+
+    /**
+     * Следующий id будет равен 1.
+     */
+    public void reset() {
+        current.set(0);
+    }
+}
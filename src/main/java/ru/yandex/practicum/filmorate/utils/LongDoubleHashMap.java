@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.utils;
+
+/**
+ * Хэш-таблица long -> double с открытой адресацией, без упаковки ключей и значений в объекты.
+ * Не потокобезопасна, предназначена для локальных вычислений внутри одного запроса.
+ */
+public class LongDoubleHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongDoubleHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongDoubleHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    public double addTo(long key, double delta) {
+        int slot = find(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] += delta;
+        double value = values[slot];
+        if (size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        return value;
+    }
+
+    public double get(long key) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[find(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(LongDoubleConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length << 1];
+        values = new double[oldKeys.length << 1];
+        used = new boolean[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    public interface LongDoubleConsumer {
+        void accept(long key, double value);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import java.util.Arrays;
+
+/**
+ * Множество long с открытой адресацией, без упаковки элементов в объекты. При удалении следующие
+ * элементы цепочки сдвигаются назад, поэтому метки удаленных ячеек не нужны и поиск не деградирует.
+ * Не потокобезопасно.
+ */
+public class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    private boolean[] used = new boolean[DEFAULT_CAPACITY];
+    private int size;
+
+    public boolean add(long key) {
+        int slot = find(key);
+        if (used[slot]) {
+            return false;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (!used[slot]) {
+            return false;
+        }
+        used[slot] = false;
+        size--;
+
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            // Элемент переносится в освободившуюся ячейку, если она лежит на пути от его исходной ячейки
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                used[slot] = true;
+                used[next] = false;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        return used[find(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toSortedArray() {
+        long[] result = new long[size];
+        int position = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                result[position++] = keys[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length << 1];
+        used = new boolean[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш небольшого справочника в памяти с чтением через источник: отсутствующие записи догружаются
+ * из источника и запоминаются. После полной загрузки getAll отдается без обращения к источнику.
+ * Каждая запись в кэш меняет версию; прочитанное из источника запоминается, только если версия
+ * не изменилась за время чтения, иначе оно могло бы вернуть запись, которую только что удалили.
+ */
+@Slf4j
+public class ReferenceCache<T> {
+    private final String name;
+    private final ToLongFunction<T> idGetter;
+    private final Map<Long, T> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean complete;
+
+    public ReferenceCache(String name, ToLongFunction<T> idGetter) {
+        this.name = name;
+        this.idGetter = idGetter;
+    }
+
+    public List<T> getAll(Supplier<List<T>> loader) {
+        if (complete) {
+            hits.increment();
+        } else {
+            misses.increment();
+            long startVersion = version.get();
+            List<T> all = loader.get();
+            if (!loadIfCurrent(all, startVersion)) {
+                return all.stream()
+                        .sorted(Comparator.comparingLong(idGetter))
+                        .toList();
+            }
+        }
+        return entries.values().stream()
+                .sorted(Comparator.comparingLong(idGetter))
+                .toList();
+    }
+
+    public Optional<T> get(long id, LongFunction<Optional<T>> loader) {
+        T entry = entries.get(id);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(entry);
+        }
+        misses.increment();
+        long startVersion = version.get();
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(loadedEntry -> putIfCurrent(List.of(loadedEntry), startVersion));
+        return loaded;
+    }
+
+    public List<T> getByIds(Collection<Long> ids, Function<Collection<Long>, List<T>> loader) {
+        List<T> result = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        ids.stream().distinct().forEach(id -> {
+            T entry = entries.get(id);
+            if (entry != null) {
+                result.add(entry);
+            } else {
+                missingIds.add(id);
+            }
+        });
+        hits.add(result.size());
+        if (!missingIds.isEmpty()) {
+            misses.add(missingIds.size());
+            long startVersion = version.get();
+            List<T> loaded = loader.apply(missingIds);
+            putIfCurrent(loaded, startVersion);
+            result.addAll(loaded);
+        }
+        return result;
+    }
+
+    public synchronized void load(List<T> all) {
+        version.incrementAndGet();
+        entries.clear();
+        all.forEach(entry -> entries.put(idGetter.applyAsLong(entry), entry));
+        complete = true;
+        log.info("Справочник {} загружен в кэш: {} записей", name, all.size());
+    }
+
+    public synchronized void put(T entry) {
+        version.incrementAndGet();
+        entries.put(idGetter.applyAsLong(entry), entry);
+    }
+
+    public synchronized void remove(long id) {
+        version.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public synchronized void invalidate() {
+        version.incrementAndGet();
+        entries.clear();
+        complete = false;
+    }
+
+    private synchronized void putIfCurrent(List<T> loaded, long startVersion) {
+        if (version.get() == startVersion) {
+            loaded.forEach(entry -> entries.putIfAbsent(idGetter.applyAsLong(entry), entry));
+        }
+    }
+
+    private synchronized boolean loadIfCurrent(List<T> all, long startVersion) {
+        if (version.get() != startVersion) {
+            return false;
+        }
+        load(all);
+        return true;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void logStats() {
+        log.info("Кэш справочника {}: записей {}, попаданий {}, промахов {}", name, entries.size(), getHits(), getMisses());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Выбор первых limit элементов в заданном порядке без сортировки всей коллекции: в куче держится
+ * не больше limit лучших элементов, поэтому выбор из n элементов занимает O(n log limit).
+ */
+public final class TopN {
+    private TopN() {
+    }
+
+    public static <T> List<T> select(Iterable<T> items, int limit, Comparator<? super T> order) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // В вершине кучи худший из отобранных элементов
+        PriorityQueue<T> heap = new PriorityQueue<>(order.reversed());
+        for (T item : items) {
+            if (heap.size() < limit) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
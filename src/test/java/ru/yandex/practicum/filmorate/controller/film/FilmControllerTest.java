@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.controller.film;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +25,8 @@ import ru.yandex.practicum.filmorate.storage.mparating.MPARatingStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.utils.DataUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -68,6 +72,9 @@ abstract class FilmControllerTest {
     @Autowired
     private DirectorStorage directorStorage;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void init() {
         filmStorage.clear();
@@ -823,4 +830,88 @@ abstract class FilmControllerTest {
         List<Film> films = filmController.search("Нет такой подстроки", new SearchBy[]{SearchBy.TITLE, SearchBy.DIRECTOR});
         Assertions.assertEquals(0, films.size(), "Контроллер не нашел лишние фильмы по режиссеру или названию");
     }
+
+    @Test
+    void filmControllerSuggestsFilmsByWordPrefixOrderedByLikes() {
+        Film film = Film.builder()
+                .name("Тестовый фильм")
+                .description("Тестовое описание фильма")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(mpaRatingStorage.getById(1).get())
+                .build();
+        Film first = filmController.create(film);
+
+        film = Film.builder()
+                .name("Просто тест")
+                .description("Тестовое описание фильма")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(mpaRatingStorage.getById(1).get())
+                .build();
+        Film second = filmController.create(film);
+
+        User user = User.builder()
+                .login("test")
+                .name("Тестовый пользователь")
+                .email("test@mail.com")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+        user = userController.create(user);
+        filmController.addLike(second.getId(), user.getId());
+
+        Assertions.assertEquals(List.of(new FilmSuggestion(second.getId(), "Просто тест"),
+                        new FilmSuggestion(first.getId(), "Тестовый фильм")),
+                filmController.suggest("ТЕСТ", 10), "Контроллер неправильно подобрал подсказки");
+        Assertions.assertEquals(1, filmController.suggest("тест", 1).size(), "Контроллер не ограничил количество подсказок");
+        Assertions.assertTrue(filmController.suggest("сто", 10).isEmpty(), "Контроллер подобрал подсказку по середине слова");
+        assertThrows(ValidationException.class, () -> filmController.suggest("тест", 0));
+    }
+
+    @Test
+    void filmControllerFindsFilmsPageAfterId() {
+        for (int i = 1; i <= 3; i++) {
+            filmController.create(Film.builder()
+                    .name("Тестовый фильм " + i)
+                    .description("Тестовое описание фильма")
+                    .releaseDate(LocalDate.of(2000, 1, i))
+                    .duration(90)
+                    .mpa(mpaRatingStorage.getById(1).get())
+                    .build());
+        }
+
+        List<Film> films = filmController.findPage(0, 2);
+        Assertions.assertEquals(2, films.size(), "Контроллер вернул неправильный размер страницы");
+        Assertions.assertEquals("Тестовый фильм 1", films.get(0).getName(), "Контроллер неправильно определил порядок фильмов");
+        Assertions.assertEquals("Тестовый фильм 2", films.get(1).getName(), "Контроллер неправильно определил порядок фильмов");
+
+        films = filmController.findPage(films.getLast().getId(), 2);
+        Assertions.assertEquals(1, films.size(), "Контроллер вернул неправильный размер последней страницы");
+        Assertions.assertEquals("Тестовый фильм 3", films.getFirst().getName(), "Контроллер вернул неправильную страницу");
+
+        assertThrows(ValidationException.class, () -> filmController.findPage(0, 0));
+        assertThrows(ValidationException.class, () -> filmController.find(1L, null, false));
+        assertThrows(ValidationException.class, () -> filmController.find(1L, 3, true));
+    }
+
+    @Test
+    void filmControllerStreamsAllFilms() throws IOException {
+        filmController.create(Film.builder()
+                .name("Тестовый фильм")
+                .description("Тестовое описание фильма")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(mpaRatingStorage.getById(1).get())
+                .genres(List.of(genreStorage.getById(1).get()))
+                .build());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        filmController.streamAll().getBody().writeTo(outputStream);
+        JsonNode films = objectMapper.readTree(outputStream.toByteArray());
+
+        Assertions.assertEquals(1, films.size(), "Контроллер не выгрузил фильмы");
+        Assertions.assertEquals("Тестовый фильм", films.get(0).get("name").asText(), "Контроллер выгрузил некорректный фильм");
+        Assertions.assertEquals("2000-01-01", films.get(0).get("releaseDate").asText(), "Контроллер некорректно выгрузил дату релиза");
+        Assertions.assertEquals(1, films.get(0).get("genres").size(), "Контроллер не выгрузил жанры фильма");
+    }
 }
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller.film;
 
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import ru.yandex.practicum.filmorate.controller.DirectorController;
@@ -16,6 +17,7 @@ import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorag
 import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
 import ru.yandex.practicum.filmorate.storage.likes.InMemoryLikeStorage;
 import ru.yandex.practicum.filmorate.storage.mparating.InMemoryMPARatingStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 
 @SpringBootTest(classes = {
@@ -34,6 +36,8 @@ import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
         InMemoryEventStorage.class,
         InMemoryDirectorStorage.class,
         RecommendationService.class,
+        RecommendationStore.class,
+        JacksonAutoConfiguration.class,
         ApplicationContext.class
 })
 public class InMemoryFilmControllerTest extends FilmControllerTest{
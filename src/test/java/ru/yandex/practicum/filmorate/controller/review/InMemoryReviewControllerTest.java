@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller.review;
 
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import ru.yandex.practicum.filmorate.controller.FilmController;
@@ -16,6 +17,7 @@ import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorag
 import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
 import ru.yandex.practicum.filmorate.storage.likes.InMemoryLikeStorage;
 import ru.yandex.practicum.filmorate.storage.mparating.InMemoryMPARatingStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.review.InMemoryReviewStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 
@@ -25,6 +27,7 @@ import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
         UserController.class,
         ReviewService.class,
         RecommendationService.class,
+        RecommendationStore.class,
         UserService.class,
         FilmService.class,
         InMemoryReviewStorage.class,
@@ -37,6 +40,7 @@ import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
         InMemoryLikeStorage.class,
         InMemoryEventStorage.class,
         InMemoryDirectorStorage.class,
+        JacksonAutoConfiguration.class,
         ApplicationContext.class
 })
 public class InMemoryReviewControllerTest extends ReviewControllerTest {
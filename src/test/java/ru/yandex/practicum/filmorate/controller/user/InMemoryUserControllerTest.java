@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.controller.user;
 
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import ru.yandex.practicum.filmorate.controller.FilmController;
@@ -16,6 +17,7 @@ import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorag
 import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
 import ru.yandex.practicum.filmorate.storage.likes.InMemoryLikeStorage;
 import ru.yandex.practicum.filmorate.storage.mparating.InMemoryMPARatingStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.review.InMemoryReviewStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 
@@ -26,6 +28,7 @@ import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
         InMemoryUserStorage.class,
         UserService.class,
         RecommendationService.class,
+        RecommendationStore.class,
         ReviewController.class,
         FilmService.class,
         UserService.class,
@@ -39,6 +42,7 @@ import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
         InMemoryEventStorage.class,
         InMemoryReviewStorage.class,
         InMemoryDirectorStorage.class,
+        JacksonAutoConfiguration.class,
         ApplicationContext.class
 })
 public class InMemoryUserControllerTest extends UserControllerTest {
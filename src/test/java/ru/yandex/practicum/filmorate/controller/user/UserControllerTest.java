@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.controller.user;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,8 @@ import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.mparating.MPARatingStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -66,6 +70,9 @@ abstract class UserControllerTest {
     @Autowired
     private LikeStorage likeStorage;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     void init() {
         userStorage.clear();
@@ -597,4 +604,44 @@ abstract class UserControllerTest {
     void userControllerRefusesToDeleteNotExistingUser() {
         Assertions.assertThrows(NotFoundException.class, () -> userController.deleteUser(1L));
     }
+
+    @Test
+    void userControllerFindsUsersPageAfterId() {
+        for (int i = 1; i <= 3; i++) {
+            userController.create(User.builder()
+                    .login("test" + i)
+                    .name("Тестовый пользователь " + i)
+                    .email("test" + i + "@mail.com")
+                    .birthday(LocalDate.of(2000, 1, 1))
+                    .build());
+        }
+
+        List<User> users = userController.findPage(1, 5);
+        Assertions.assertEquals(2, users.size(), "Контроллер вернул неправильный размер страницы");
+        Assertions.assertEquals("test2", users.get(0).getLogin(), "Контроллер неправильно определил порядок пользователей");
+        Assertions.assertEquals("test3", users.get(1).getLogin(), "Контроллер неправильно определил порядок пользователей");
+
+        assertThrows(ValidationException.class, () -> userController.findPage(0, -1));
+        assertThrows(ValidationException.class, () -> userController.find(1L, null, false));
+        assertThrows(ValidationException.class, () -> userController.find(1L, 3, true));
+    }
+
+    @Test
+    void userControllerStreamsAllUsers() throws IOException {
+        for (int i = 1; i <= 2; i++) {
+            userController.create(User.builder()
+                    .login("test" + i)
+                    .name("Тестовый пользователь " + i)
+                    .email("test" + i + "@mail.com")
+                    .birthday(LocalDate.of(2000, 1, 1))
+                    .build());
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        userController.streamAll().getBody().writeTo(outputStream);
+        JsonNode users = objectMapper.readTree(outputStream.toByteArray());
+
+        Assertions.assertEquals(2, users.size(), "Контроллер не выгрузил пользователей");
+        Assertions.assertEquals("test1", users.get(0).get("login").asText(), "Контроллер выгрузил некорректного пользователя");
+    }
 }
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationRefresherTest {
+    @Mock
+    private LikeStorage likeStorage;
+
+    @Mock
+    private RecommendationService recommendationService;
+
+    @Mock
+    private RecommendationStore recommendationStore;
+
+    @InjectMocks
+    private RecommendationRefresher recommendationRefresher;
+
+    @Test
+    void shouldSkipRefreshUntilLikeIndexIsLoaded() {
+        when(likeStorage.isIndexReady()).thenReturn(false);
+
+        recommendationRefresher.refresh();
+
+        verify(likeStorage, never()).findLikingUserIds();
+        verify(recommendationStore, never()).publish(any(), any());
+    }
+
+    @Test
+    void shouldPublishSnapshotOnceLikeIndexIsLoaded() {
+        when(likeStorage.isIndexReady()).thenReturn(true);
+        when(likeStorage.findLikingUserIds()).thenReturn(new long[0]);
+
+        recommendationRefresher.refresh();
+
+        verify(recommendationStore).publish(any(), any());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -8,9 +9,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.RecommendationMode;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.likes.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
@@ -20,6 +23,10 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,14 +40,22 @@ class RecommendationServiceTest {
     @Mock
     private LikeStorage likeStorage;
 
+    @Mock
+    private RecommendationStore recommendationStore;
+
     @InjectMocks
     private RecommendationService recommendationService;
 
+    @BeforeEach
+    void init() {
+        lenient().when(likeStorage.isIndexReady()).thenReturn(true);
+    }
+
     @Test
     void shouldReturnEmptyRecommendationsForNewUser() {
         User user = createUser(1L);
         when(userStorage.getById(1L)).thenReturn(Optional.of(user));
-        when(likeStorage.findAll()).thenReturn(List.of());
+        when(likeStorage.findFilmIdsByUserId(1L)).thenReturn(new long[0]);
 
         List<Film> recommendations = recommendationService.getRecommendations(1L);
 
@@ -56,13 +71,11 @@ class RecommendationServiceTest {
         Film film3 = createFilm(3L);
 
         when(userStorage.getById(2L)).thenReturn(Optional.of(user2));
-        when(filmStorage.getById(2L)).thenReturn(Optional.of(film2));
-        when(likeStorage.findAll()).thenReturn(List.of(
-                new Like(1L, 1L),
-                new Like(1L, 2L),
-                new Like(2L, 1L),
-                new Like(2L, 3L)
-        ));
+        when(filmStorage.getByIds(List.of(2L))).thenReturn(List.of(film2));
+        when(likeStorage.findFilmIdsByUserId(1L)).thenReturn(new long[]{1L, 2L});
+        when(likeStorage.findFilmIdsByUserId(2L)).thenReturn(new long[]{1L, 3L});
+        when(likeStorage.findUserIdsByFilmId(1L)).thenReturn(new long[]{1L, 2L});
+        when(likeStorage.findUserIdsByFilmId(3L)).thenReturn(new long[]{2L});
 
         List<Film> recommendations = recommendationService.getRecommendations(2L);
 
@@ -70,6 +83,47 @@ class RecommendationServiceTest {
         assertEquals(film2.getId(), recommendations.get(0).getId());
     }
 
+    @Test
+    void shouldRankFilmsByWeightedNeighbours() {
+        when(userStorage.getById(1L)).thenReturn(Optional.of(createUser(1L)));
+        when(filmStorage.getByIds(List.of(4L, 5L))).thenReturn(List.of(createFilm(4L), createFilm(5L)));
+        when(likeStorage.findFilmIdsByUserId(1L)).thenReturn(new long[]{1L, 2L});
+        when(likeStorage.findFilmIdsByUserId(2L)).thenReturn(new long[]{1L, 3L});
+        when(likeStorage.findFilmIdsByUserId(3L)).thenReturn(new long[]{1L, 2L, 4L, 5L});
+        when(likeStorage.findUserIdsByFilmId(1L)).thenReturn(new long[]{1L, 2L, 3L});
+        when(likeStorage.findUserIdsByFilmId(2L)).thenReturn(new long[]{1L, 3L});
+
+        List<Film> recommendations = recommendationService.getRecommendations(1L, RecommendationMode.WEIGHTED, 2);
+
+        assertEquals(List.of(4L, 5L), recommendations.stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldServePrecomputedRecommendationsWithoutOwnLikes() {
+        when(userStorage.getById(1L)).thenReturn(Optional.of(createUser(1L)));
+        when(filmStorage.getByIds(List.of(3L))).thenReturn(List.of(createFilm(3L)));
+        when(likeStorage.findFilmIdsByUserId(1L)).thenReturn(new long[]{1L, 2L});
+        when(recommendationStore.find(1L, RecommendationMode.WEIGHTED)).thenReturn(Optional.of(new long[]{2L, 3L}));
+
+        List<Film> recommendations = recommendationService.getRecommendations(1L, RecommendationMode.WEIGHTED, null);
+
+        assertEquals(List.of(3L), recommendations.stream().map(Film::getId).toList());
+        verify(likeStorage, never()).findUserIdsByFilmId(anyLong());
+    }
+
+    @Test
+    void shouldUseLikesFromDatabaseUntilIndexIsLoaded() {
+        when(likeStorage.isIndexReady()).thenReturn(false);
+        when(userStorage.getById(2L)).thenReturn(Optional.of(createUser(2L)));
+        when(likeStorage.findAll()).thenReturn(List.of(new Like(1L, 1L), new Like(1L, 2L), new Like(2L, 1L)));
+        when(filmStorage.getByIds(List.of(2L))).thenReturn(List.of(createFilm(2L)));
+
+        List<Film> recommendations = recommendationService.getRecommendations(2L);
+
+        assertEquals(List.of(2L), recommendations.stream().map(Film::getId).toList());
+        verify(likeStorage, never()).findFilmIdsByUserId(anyLong());
+    }
+
     @Test
     void shouldThrowExceptionForNonExistentUser() {
         when(userStorage.getById(999L)).thenReturn(Optional.empty());
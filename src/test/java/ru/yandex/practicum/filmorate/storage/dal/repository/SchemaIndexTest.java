@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.dal.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет планы запросов, которые действительно выполняют репозитории: константы запросов
+ * видны в пакете репозиториев, параметры подставляются так же, как при выполнении. Здесь только
+ * запросы по первичным и уникальным ключам и по внешним ключам, для которых H2 сам создает индексы;
+ * выбор индекса для сортировки, OR и соединений зависит от оптимизатора и тестом не гарантируется.
+ */
+@SpringBootTest(classes = FilmorateApplication.class)
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SchemaIndexTest {
+    private final JdbcTemplate jdbc;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                Arguments.of("фильм по id", FilmRepository.FIND_BY_ID_QUERY, new Object[]{1L}),
+                Arguments.of("дубликат фильма", FilmRepository.FIND_DUPLICATE_QUERY, new Object[]{"abc"}),
+                Arguments.of("страница фильмов", FilmRepository.FIND_PAGE_QUERY, new Object[]{1L, 10}),
+                Arguments.of("фильмы по id", FilmRepository.FIND_BY_IDS_QUERY.formatted("?, ?"), new Object[]{1L, 2L}),
+                Arguments.of("жанры фильмов", FilmRepository.FIND_GENRES_QUERY.formatted("?, ?"), new Object[]{1L, 2L}),
+                Arguments.of("режиссеры фильмов", FilmRepository.FIND_DIRECTORS_QUERY.formatted("?, ?"), new Object[]{1L, 2L}),
+                Arguments.of("популярные фильмы по id", FilmRepository.FIND_POPULAR_QUERY.formatted("?, ?"), new Object[]{1L, 2L}),
+                Arguments.of("общие фильмы", FilmRepository.FIND_COMMON_QUERY, new Object[]{1L, 2L}),
+                Arguments.of("фильмы режиссера по году", FilmRepository.FIND_BY_DIRECTOR_YEAR_QUERY, new Object[]{1L}),
+                Arguments.of("фильмы режиссера по лайкам", FilmRepository.FIND_BY_DIRECTOR_LIKES_QUERY, new Object[]{1L}),
+                Arguments.of("лайки пользователя", LikeRepository.FIND_FILM_IDS_BY_USER_ID_QUERY, new Object[]{1L}),
+                Arguments.of("снятие лайков пользователя", LikeRepository.RELEASE_USER_LIKES_QUERY, new Object[]{1L}),
+                Arguments.of("удаление лайков фильма", LikeRepository.DELETE_BY_FILM_ID_QUERY, new Object[]{1L}),
+                Arguments.of("друзья пользователя", FriendshipRepository.FIND_BY_USER_ID, new Object[]{1L}),
+                Arguments.of("общие друзья", UserRepository.FIND_COMMON_FRIENDS_QUERY, new Object[]{1L, 2L}),
+                Arguments.of("пользователь по email", UserRepository.FIND_BY_EMAIL_QUERY, new Object[]{"user@mail.com"}),
+                Arguments.of("пользователь по логину", UserRepository.FIND_BY_LOGIN_QUERY, new Object[]{"user"}),
+                Arguments.of("страница пользователей", UserRepository.FIND_PAGE_QUERY, new Object[]{1L, 10}),
+                Arguments.of("лента событий", EventRepository.FIND_BY_USER_ID_QUERY, new Object[]{1L}),
+                Arguments.of("отзывы к фильму", ReviewRepository.FIND_BY_FILM_ID_QUERY, new Object[]{1L, 10}),
+                Arguments.of("полезность отзыва", ReviewRepository.UPDATE_USEFUL_QUERY, new Object[]{1L, 1L})
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueriesShouldUseIndexes(String description, String query, Object[] params) {
+        String plan = explain(query, params);
+
+        assertFalse(plan.contains("tableScan"), "Запрос выполняется полным сканированием таблицы: " + plan);
+    }
+
+    private String explain(String query, Object[] params) {
+        return jdbc.queryForObject("EXPLAIN " + query, String.class, params);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilmCacheTest {
+    private final FilmCache filmCache = new FilmCache(2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldEvictLeastRecentlyUsedFilm() {
+        filmCache.get(1L, this::load);
+        filmCache.get(2L, this::load);
+        filmCache.get(1L, this::load);
+        filmCache.get(3L, this::load);
+
+        filmCache.get(1L, this::load);
+        assertEquals(3, loads.get());
+        filmCache.get(2L, this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2, filmCache.getEvictions());
+    }
+
+    @Test
+    void shouldNotCacheFilmLoadedBeforeConcurrentInvalidation() {
+        filmCache.get(1L, id -> {
+            filmCache.invalidate(id);
+            return load(id);
+        });
+        filmCache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldKeepRequestedOrderAndLoadOnlyMissingFilms() {
+        filmCache.get(2L, this::load);
+
+        List<Film> films = filmCache.getAll(List.of(3L, 2L, 3L), ids -> {
+            assertEquals(List.of(3L), ids);
+            return ids.stream().map(id -> load(id).orElseThrow()).toList();
+        });
+
+        assertEquals(List.of(3L, 2L, 3L), films.stream().map(Film::getId).toList());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotExposeCachedFilmToCallerChanges() {
+        filmCache.get(1L, this::load).orElseThrow().setName("Changed");
+        filmCache.getAll(List.of(1L), ids -> List.of()).getFirst().setName("Changed again");
+
+        assertEquals("Film 1", filmCache.get(1L, this::load).orElseThrow().getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldSpreadFilmsOverSegmentsAndClearThemAll() {
+        FilmCache segmentedCache = new FilmCache(1024);
+        for (long id = 1; id <= 1000; id++) {
+            segmentedCache.get(id, this::load);
+        }
+        for (long id = 1; id <= 1000; id++) {
+            segmentedCache.get(id, this::load);
+        }
+        assertEquals(1000, loads.get());
+        assertEquals(0, segmentedCache.getEvictions());
+
+        segmentedCache.invalidateAll();
+        segmentedCache.get(500L, this::load);
+        assertEquals(1001, loads.get());
+    }
+
+    private Optional<Film> load(long id) {
+        loads.incrementAndGet();
+        return Optional.of(Film.builder().id(id).name("Film " + id).build());
+    }
+}
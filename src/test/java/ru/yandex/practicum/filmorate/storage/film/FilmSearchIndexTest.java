@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmSuggestion;
+import ru.yandex.practicum.filmorate.model.SearchBy;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilmSearchIndexTest {
+    private final FilmSearchIndex searchIndex = new FilmSearchIndex();
+
+    @Test
+    void shouldFindSubstringOfTitleIgnoringCase() {
+        searchIndex.putFilm(createFilm(1L, "Крестный отец"));
+        searchIndex.putFilm(createFilm(2L, "Отель Гранд Будапешт"));
+        searchIndex.putFilm(createFilm(3L, "Отец невесты"));
+        searchIndex.putFilm(createFilm(4L, "Анна и Нана"));
+
+        assertEquals(Set.of(1L, 3L), searchIndex.find("ОТЕЦ", new SearchBy[]{SearchBy.TITLE}));
+        assertEquals(Set.of(1L, 2L, 3L), searchIndex.find("от", new SearchBy[]{SearchBy.TITLE}));
+        // все триграммы запроса есть в названии, но сам запрос в нем не встречается
+        assertEquals(Set.of(), searchIndex.find("анан", new SearchBy[]{SearchBy.TITLE}));
+
+        searchIndex.putFilm(createFilm(3L, "Отель"));
+        assertEquals(Set.of(1L), searchIndex.find("отец", new SearchBy[]{SearchBy.TITLE}));
+        searchIndex.removeFilm(1L);
+        assertEquals(Set.of(), searchIndex.find("отец", new SearchBy[]{SearchBy.TITLE}));
+    }
+
+    @Test
+    void shouldFindFilmsByDirectorName() {
+        searchIndex.putDirector(1L, "Фрэнсис Форд Коппола");
+        searchIndex.putDirector(2L, "Уэс Андерсон");
+        searchIndex.putFilm(createFilm(1L, "Крестный отец", 1L));
+        searchIndex.putFilm(createFilm(2L, "Отель Гранд Будапешт", 2L));
+        searchIndex.putFilm(createFilm(3L, "Коппола: семейная история"));
+
+        assertEquals(Set.of(1L), searchIndex.find("коппола", new SearchBy[]{SearchBy.DIRECTOR}));
+        assertEquals(Set.of(1L, 3L), searchIndex.find("коппола", new SearchBy[]{SearchBy.TITLE, SearchBy.DIRECTOR}));
+        assertEquals(Set.of(2L), searchIndex.find("отель", new SearchBy[]{SearchBy.TITLE, SearchBy.DIRECTOR}));
+
+        searchIndex.putDirector(2L, "Коппола-младший");
+        assertEquals(Set.of(1L, 2L), searchIndex.find("коппола", new SearchBy[]{SearchBy.DIRECTOR}));
+        searchIndex.removeDirector(1L);
+        assertEquals(Set.of(2L), searchIndex.find("коппола", new SearchBy[]{SearchBy.DIRECTOR}));
+    }
+
+    @Test
+    void shouldSuggestFilmsByWordPrefixOfTitleOrDirector() {
+        searchIndex.putDirector(1L, "Фрэнсис Форд Коппола");
+        searchIndex.putFilm(createFilm(1L, "Крестный отец", 1L));
+        searchIndex.putFilm(createFilm(2L, "Отель Гранд Будапешт"));
+        searchIndex.putFilm(createFilm(3L, "Отец невесты"));
+
+        List<FilmSuggestion> suggestions = searchIndex.suggest("от", 10, this::firstById);
+        assertEquals(List.of(new FilmSuggestion(1L, "Крестный отец"), new FilmSuggestion(2L, "Отель Гранд Будапешт"),
+                new FilmSuggestion(3L, "Отец невесты")), suggestions);
+        assertEquals(List.of(new FilmSuggestion(1L, "Крестный отец")),
+                searchIndex.suggest("форд", 10, this::firstById));
+        assertEquals(List.of(), searchIndex.suggest("ец", 10, this::firstById));
+        assertEquals(List.of(new FilmSuggestion(3L, "Отец невесты")),
+                searchIndex.suggest("отец", 1, this::lastById));
+    }
+
+    private List<Long> firstById(Collection<Long> ids, int limit) {
+        return ids.stream().sorted().limit(limit).toList();
+    }
+
+    private List<Long> lastById(Collection<Long> ids, int limit) {
+        return ids.stream().sorted(Comparator.reverseOrder()).limit(limit).toList();
+    }
+
+    private Film createFilm(long id, String name, Long... directorIds) {
+        return Film.builder()
+                .id(id)
+                .name(name)
+                .directors(List.of(directorIds).stream()
+                        .map(directorId -> Director.builder().id(directorId).build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.director.InMemoryDirectorStorage;
+import ru.yandex.practicum.filmorate.storage.genre.InMemoryGenreStorage;
+import ru.yandex.practicum.filmorate.storage.likes.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.mparating.InMemoryMPARatingStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryFilmStorageTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(new InMemoryLikeStorage(),
+            new InMemoryGenreStorage(), new InMemoryMPARatingStorage(), new InMemoryDirectorStorage());
+
+    @Test
+    void shouldGiveIncreasingIdsToFilmsCreatedFromDifferentThreads() throws InterruptedException {
+        Thread other = new Thread(() -> filmStorage.create(createFilm(1)));
+
+        long first = filmStorage.create(createFilm(0)).getId();
+        other.start();
+        other.join();
+        long third = filmStorage.create(createFilm(2)).getId();
+
+        assertEquals(1, first);
+        assertEquals(3, third);
+        assertEquals(3, filmStorage.getAll().size());
+    }
+
+    private Film createFilm(int i) {
+        return Film.builder()
+                .name("Film " + i)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+    }
+}
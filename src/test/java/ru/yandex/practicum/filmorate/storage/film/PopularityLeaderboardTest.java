@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.dal.repository.FilmRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class PopularityLeaderboardTest {
+    @Mock
+    private FilmRepository filmRepository;
+
+    private PopularityLeaderboard leaderboard;
+
+    @BeforeEach
+    void init() {
+        leaderboard = new PopularityLeaderboard(filmRepository);
+        leaderboard.put(createFilm(1L, 1999, 2L));
+        leaderboard.put(createFilm(2L, 2000, 1L));
+        leaderboard.put(createFilm(3L, 2000, 2L));
+    }
+
+    @Test
+    void shouldOrderByLikesThenById() {
+        leaderboard.increment(2L);
+        leaderboard.increment(2L);
+        leaderboard.increment(1L);
+
+        assertEquals(List.of(2L, 1L, 3L), leaderboard.findTop(null, null, null));
+        assertEquals(List.of(2L, 1L), leaderboard.findTop(2, null, null));
+    }
+
+    @Test
+    void shouldFilterByYearAndGenre() {
+        leaderboard.increment(2L);
+        leaderboard.increment(2L);
+        leaderboard.increment(1L);
+
+        assertEquals(List.of(1L, 3L), leaderboard.findTop(null, null, 2L));
+        assertEquals(List.of(2L, 3L), leaderboard.findTop(null, 2000, null));
+        assertEquals(List.of(3L), leaderboard.findTop(null, 2000, 2L));
+        assertTrue(leaderboard.findTop(null, 1990, null).isEmpty());
+    }
+
+    @Test
+    void shouldKeepLikesWhenFilmIsUpdatedAndForgetRemovedFilm() {
+        leaderboard.increment(3L);
+        leaderboard.put(createFilm(3L, 2001, 1L));
+
+        assertEquals(List.of(3L, 2L), leaderboard.findTop(null, null, 1L));
+        assertEquals(List.of(3L), leaderboard.findTop(null, 2001, null));
+
+        leaderboard.remove(3L);
+        leaderboard.increment(1L);
+
+        assertEquals(List.of(1L, 2L), leaderboard.findTop(null, null, null));
+    }
+
+    @Test
+    void shouldReplayChangesMadeDuringRebuild() {
+        doAnswer(invocation -> {
+            FilmRepository.RankingHandler handler = invocation.getArgument(0);
+            handler.handle(1L, 1999, 1L, 2L);
+            leaderboard.increment(2L);
+            leaderboard.increment(2L);
+            leaderboard.remove(3L);
+            handler.handle(2L, 2000, 0L, 1L);
+            handler.handle(3L, 2000, 0L, 2L);
+            return null;
+        }).when(filmRepository).forEachRanking(any());
+
+        leaderboard.rebuild();
+
+        assertTrue(leaderboard.isReady());
+        assertEquals(List.of(2L, 1L), leaderboard.findTop(null, null, null));
+    }
+
+    private Film createFilm(Long id, int year, Long genreId) {
+        return Film.builder()
+                .id(id)
+                .name("Film " + id)
+                .releaseDate(LocalDate.of(year, 1, 1))
+                .duration(120)
+                .genres(List.of(Genre.builder().id(genreId).build()))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Friendship;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryFriendshipStorageTest {
+    private final InMemoryFriendshipStorage friendshipStorage = new InMemoryFriendshipStorage();
+
+    @Test
+    void shouldAcceptFriendshipWhenBothUsersAddEachOther() {
+        friendshipStorage.create(1L, 2L);
+        assertFalse(friendshipStorage.findByUserId(1L).getFirst().isAccepted());
+
+        friendshipStorage.create(2L, 1L);
+        assertTrue(friendshipStorage.findByUserId(1L).getFirst().isAccepted());
+        assertTrue(friendshipStorage.findByUserId(2L).getFirst().isAccepted());
+
+        friendshipStorage.remove(2L, 1L);
+        assertEquals(List.of(), friendshipStorage.findByUserId(2L));
+        assertEquals(List.of(new Friendship(1L, 2L, false)), friendshipStorage.findByUserId(1L));
+        assertFalse(friendshipStorage.findByUserId(1L).getFirst().isAccepted());
+    }
+
+    @Test
+    void shouldFindCommonFriendsInIdOrder() {
+        friendshipStorage.create(1L, 5L);
+        friendshipStorage.create(1L, 3L);
+        friendshipStorage.create(1L, 4L);
+        friendshipStorage.create(2L, 3L);
+        friendshipStorage.create(2L, 5L);
+
+        assertEquals(List.of(3L, 5L), friendshipStorage.findCommonFriendIds(1L, 2L));
+        assertEquals(List.of(3L, 5L), friendshipStorage.findCommonFriendIds(2L, 1L));
+        assertEquals(List.of(), friendshipStorage.findCommonFriendIds(1L, 6L));
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.storage.likes;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryLikeStorageTest {
+    private final InMemoryLikeStorage likeStorage = new InMemoryLikeStorage();
+
+    @Test
+    void shouldCountLikesPerFilmIgnoringRepeatedLikes() {
+        likeStorage.create(1L, 10L);
+        likeStorage.create(1L, 10L);
+        likeStorage.create(2L, 10L);
+        likeStorage.create(2L, 20L);
+
+        assertEquals(2L, likeStorage.findCountByFilmId(10L));
+        assertEquals(1L, likeStorage.findCountByFilmId(20L));
+        assertEquals(0L, likeStorage.findCountByFilmId(30L));
+
+        likeStorage.remove(1L, 10L);
+        likeStorage.removeByUserId(2L);
+
+        assertEquals(0L, likeStorage.findCountByFilmId(10L));
+        assertEquals(List.of(), likeStorage.findAll());
+    }
+
+    @Test
+    void shouldFindLikesByFilmIds() {
+        likeStorage.create(1L, 10L);
+        likeStorage.create(2L, 10L);
+        likeStorage.create(2L, 20L);
+        likeStorage.create(3L, 30L);
+
+        assertEquals(List.of(new Like(1L, 10L), new Like(2L, 10L), new Like(2L, 20L)),
+                likeStorage.findByFilmIds(List.of(10L, 20L, 10L)));
+        assertEquals(4, likeStorage.findAll().size());
+    }
+
+    @Test
+    void shouldIntersectLikedFilmsOfTwoUsers() {
+        List.of(10L, 20L, 30L, 50L).forEach(filmId -> likeStorage.create(1L, filmId));
+        List.of(5L, 20L, 40L, 50L, 60L).forEach(filmId -> likeStorage.create(2L, filmId));
+
+        assertArrayEquals(new long[]{20L, 50L}, likeStorage.findCommonFilmIds(1L, 2L));
+        assertArrayEquals(new long[]{20L, 50L}, likeStorage.findCommonFilmIds(2L, 1L));
+        assertArrayEquals(new long[]{10L, 20L, 30L, 50L}, likeStorage.findCommonFilmIds(1L, 1L));
+        assertArrayEquals(new long[0], likeStorage.findCommonFilmIds(1L, 3L));
+    }
+}
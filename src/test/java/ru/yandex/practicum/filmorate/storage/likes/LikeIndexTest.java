@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage.likes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LikeIndexTest {
+    private final LikeIndex likeIndex = new LikeIndex();
+
+    @Test
+    void shouldKeepPostingListsSortedInBothDirections() {
+        assertTrue(likeIndex.add(1L, 30L));
+        assertTrue(likeIndex.add(1L, 10L));
+        assertTrue(likeIndex.add(2L, 10L));
+        assertFalse(likeIndex.add(1L, 10L));
+
+        assertArrayEquals(new long[]{10L, 30L}, likeIndex.findFilmIds(1L));
+        assertArrayEquals(new long[]{1L, 2L}, likeIndex.findUserIds(10L));
+        assertEquals(2, likeIndex.count(10L));
+
+        assertTrue(likeIndex.remove(1L, 10L));
+        assertFalse(likeIndex.remove(1L, 10L));
+        assertArrayEquals(new long[]{30L}, likeIndex.findFilmIds(1L));
+        assertArrayEquals(new long[]{2L}, likeIndex.findUserIds(10L));
+        assertEquals(1, likeIndex.count(10L));
+        assertEquals(0, likeIndex.count(40L));
+    }
+
+    @Test
+    void shouldRemoveUserAndFilmFromBothDirections() {
+        likeIndex.load(Map.of(1L, List.of(20L, 10L), 2L, List.of(10L)));
+
+        assertArrayEquals(new long[]{10L, 20L}, likeIndex.removeUser(1L));
+        assertArrayEquals(new long[0], likeIndex.findFilmIds(1L));
+        assertArrayEquals(new long[]{2L}, likeIndex.findUserIds(10L));
+        assertArrayEquals(new long[0], likeIndex.findUserIds(20L));
+
+        assertArrayEquals(new long[]{2L}, likeIndex.removeFilm(10L));
+        assertArrayEquals(new long[0], likeIndex.findFilmIds(2L));
+    }
+
+    @Test
+    void shouldReplayChangesMadeWhileLoading() {
+        likeIndex.load(() -> {
+            likeIndex.add(3L, 30L);
+            likeIndex.remove(1L, 10L);
+            return Map.of(1L, List.of(10L, 20L));
+        });
+
+        assertTrue(likeIndex.isReady());
+        assertArrayEquals(new long[]{20L}, likeIndex.findFilmIds(1L));
+        assertArrayEquals(new long[]{30L}, likeIndex.findFilmIds(3L));
+        assertEquals(0, likeIndex.count(10L));
+    }
+
+    @Test
+    void shouldComputeDifferenceOfSortedArrays() {
+        assertArrayEquals(new long[]{2L, 5L}, LikeIndex.difference(new long[]{1L, 2L, 4L, 5L}, new long[]{1L, 3L, 4L}));
+        assertArrayEquals(new long[]{1L}, LikeIndex.difference(new long[]{1L}, new long[0]));
+    }
+}
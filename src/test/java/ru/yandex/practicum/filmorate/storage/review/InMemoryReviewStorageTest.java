@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage.review;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryReviewStorageTest {
+    private final InMemoryReviewStorage reviewStorage = new InMemoryReviewStorage();
+
+    @Test
+    void shouldAssignUniqueIdsToConcurrentlyCreatedReviews() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        LongStream.rangeClosed(1, 1000).parallel()
+                .forEach(i -> ids.add(reviewStorage.create(createReview()).getReviewId()));
+
+        assertEquals(1000, ids.size());
+        assertEquals(1000, reviewStorage.getAll(null, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void shouldKeepUsefulConsistentUnderConcurrentRatings() {
+        long reviewId = reviewStorage.create(createReview()).getReviewId();
+
+        LongStream.rangeClosed(1, 1000).parallel().forEach(userId -> {
+            reviewStorage.addLike(reviewId, userId);
+            if (userId % 2 == 0) {
+                reviewStorage.addDislike(reviewId, userId);
+            }
+        });
+
+        assertEquals(0, reviewStorage.getById(reviewId).orElseThrow().getUseful());
+    }
+
+    private Review createReview() {
+        return Review.builder()
+                .content("Отзыв")
+                .isPositive(true)
+                .userId(1L)
+                .filmId(1L)
+                .build();
+    }
+}
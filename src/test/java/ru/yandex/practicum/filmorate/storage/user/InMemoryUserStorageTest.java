@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryUserStorageTest {
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage(new InMemoryFriendshipStorage());
+
+    @Test
+    void shouldMoveEmailAndLoginIndexesOnUpdate() {
+        User user = userStorage.create(createUser("old@mail.ru", "old"));
+        User changed = createUser("new@mail.ru", "new");
+        changed.setId(user.getId());
+        userStorage.update(changed);
+
+        assertTrue(userStorage.getByEmail("old@mail.ru").isEmpty());
+        assertTrue(userStorage.getByLogin("old").isEmpty());
+        assertEquals(user.getId(), userStorage.getByEmail("new@mail.ru").orElseThrow().getId());
+        assertEquals(user.getId(), userStorage.getByLogin("new").orElseThrow().getId());
+
+        userStorage.create(createUser("old@mail.ru", "old"));
+        userStorage.delete(user.getId());
+        assertTrue(userStorage.getByLogin("new").isEmpty());
+    }
+
+    @Test
+    void shouldRejectTakenLoginWithoutKeepingEmail() {
+        userStorage.create(createUser("first@mail.ru", "login"));
+
+        assertThrows(DuplicatedDataException.class, () -> userStorage.create(createUser("second@mail.ru", "login")));
+        assertTrue(userStorage.getByEmail("second@mail.ru").isEmpty());
+        assertEquals(1, userStorage.getAll().size());
+    }
+
+    @Test
+    void shouldAllowOnlyOneOfConcurrentSignUpsWithSameLogin() {
+        AtomicInteger created = new AtomicInteger();
+        IntStream.range(0, 100).parallel().forEach(i -> {
+            try {
+                userStorage.create(createUser("user" + i + "@mail.ru", "login"));
+                created.incrementAndGet();
+            } catch (DuplicatedDataException ignored) {
+                // логин уже занят другим потоком
+            }
+        });
+
+        assertEquals(1, created.get());
+        assertEquals(1, userStorage.getAll().size());
+    }
+
+    private User createUser(String email, String login) {
+        return User.builder()
+                .email(email)
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MPARating;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class FilmFingerprintTest {
+    @Test
+    void shouldIgnoreGenreOrderAndDescription() {
+        Film film = createFilm("Фильм", List.of(genre(2L), genre(1L)));
+        Film sameFilm = createFilm("Фильм", List.of(genre(1L), genre(2L), genre(1L)));
+        sameFilm.setDescription("Другое описание");
+
+        assertEquals(64, FilmFingerprint.of(film).length());
+        assertEquals(FilmFingerprint.of(film), FilmFingerprint.of(sameFilm));
+    }
+
+    @Test
+    void shouldDifferForDifferentGenresOrName() {
+        Film film = createFilm("Фильм", List.of(genre(1L)));
+
+        assertNotEquals(FilmFingerprint.of(film), FilmFingerprint.of(createFilm("Фильм", List.of())));
+        assertNotEquals(FilmFingerprint.of(film), FilmFingerprint.of(createFilm("Фильм 2", List.of(genre(1L)))));
+    }
+
+    private Film createFilm(String name, List<Genre> genres) {
+        return Film.builder()
+                .name(name)
+                .description("Описание")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .mpa(MPARating.builder().id(1L).build())
+                .genres(genres)
+                .build();
+    }
+
+    private Genre genre(Long id) {
+        return Genre.builder().id(id).build();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdSequenceTest {
+    @Test
+    void shouldStartFromOneAfterReset() {
+        IdSequence sequence = new IdSequence();
+        assertEquals(1, sequence.next());
+        assertEquals(2, sequence.next());
+
+        sequence.reset();
+        assertEquals(1, sequence.next());
+    }
+
+    @Test
+    void shouldGiveDistinctIdsToConcurrentCallers() {
+        IdSequence sequence = new IdSequence();
+
+        Set<Long> ids = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> sequence.next())
+                .collect(Collectors.toSet());
+
+        assertEquals(LongStream.rangeClosed(1, 10_000).boxed().collect(Collectors.toSet()), ids);
+    }
+}
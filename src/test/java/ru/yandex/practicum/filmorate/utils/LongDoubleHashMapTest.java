@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongDoubleHashMapTest {
+    @Test
+    void shouldAccumulateValuesAcrossResize() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        for (long key = 0; key < 1000; key++) {
+            map.addTo(key * 31, 1);
+            map.addTo(key * 31, 0.5);
+        }
+
+        assertEquals(1000, map.size());
+        assertEquals(1.5, map.get(31 * 500));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(1));
+        assertEquals(0, map.get(1));
+
+        double[] total = {0};
+        map.forEach((key, value) -> total[0] += value);
+        assertEquals(1500, total[0]);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+    @Test
+    void shouldKeepElementsReachableAfterRemovalsAndResize() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 1000; key++) {
+            assertTrue(set.add(key * 64));
+        }
+        assertFalse(set.add(0));
+
+        for (long key = 0; key < 1000; key += 2) {
+            assertTrue(set.remove(key * 64));
+        }
+        assertFalse(set.remove(0));
+
+        assertEquals(500, set.size());
+        for (long key = 1; key < 1000; key += 2) {
+            assertTrue(set.contains(key * 64));
+        }
+        assertFalse(set.contains(128));
+    }
+
+    @Test
+    void shouldReturnSortedElements() {
+        LongHashSet set = new LongHashSet();
+        set.add(30);
+        set.add(-5);
+        set.add(10);
+        set.remove(10);
+
+        assertArrayEquals(new long[]{-5, 30}, set.toSortedArray());
+        set.remove(-5);
+        set.remove(30);
+        assertTrue(set.isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceCacheTest {
+    private final ReferenceCache<Genre> cache = new ReferenceCache<>("genres", Genre::getId);
+    private final List<Collection<Long>> requests = new ArrayList<>();
+
+    @Test
+    void shouldServePreloadedEntriesAndReadThroughMissingOnes() {
+        cache.load(List.of(new Genre(2L, "Драма"), new Genre(1L, "Комедия")));
+
+        assertEquals(List.of(new Genre(1L, "Комедия"), new Genre(2L, "Драма")), cache.getAll(List::of));
+        assertEquals(2, cache.getByIds(List.of(1L, 2L, 1L), this::load).size());
+        assertTrue(requests.isEmpty());
+
+        assertEquals(3, cache.getByIds(List.of(1L, 2L, 3L), this::load).size());
+        assertEquals(List.of(List.of(3L)), requests);
+        assertEquals(Optional.of(new Genre(3L, "Жанр 3")), cache.get(3L, id -> Optional.empty()));
+
+        assertEquals(6, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void shouldReloadAllAfterInvalidation() {
+        cache.load(List.of(new Genre(1L, "Комедия")));
+        cache.invalidate();
+
+        assertEquals(List.of(new Genre(2L, "Драма")), cache.getAll(() -> List.of(new Genre(2L, "Драма"))));
+        assertEquals(Optional.empty(), cache.get(1L, id -> Optional.empty()));
+    }
+
+    @Test
+    void shouldNotPublishEntryLoadedBeforeConcurrentRemoval() {
+        Optional<Genre> loaded = cache.get(1L, id -> {
+            cache.remove(id);
+            return Optional.of(new Genre(id, "Комедия"));
+        });
+
+        assertEquals(Optional.of(new Genre(1L, "Комедия")), loaded);
+        assertEquals(Optional.empty(), cache.get(1L, id -> Optional.empty()));
+
+        cache.getByIds(List.of(2L), ids -> {
+            cache.remove(2L);
+            return load(ids);
+        });
+        assertEquals(List.of(), cache.getByIds(List.of(2L), ids -> List.of()));
+    }
+
+    private List<Genre> load(Collection<Long> ids) {
+        requests.add(List.copyOf(ids));
+        return ids.stream().map(id -> new Genre(id, "Жанр " + id)).toList();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopNTest {
+    @Test
+    void shouldSelectFirstElementsInOrder() {
+        List<Integer> items = List.of(5, 1, 9, 3, 7, 9, 2);
+
+        assertEquals(List.of(9, 9, 7), TopN.select(items, 3, Comparator.<Integer>reverseOrder()));
+        assertEquals(List.of(1, 2, 3, 5, 7, 9, 9), TopN.select(items, 10, Comparator.<Integer>naturalOrder()));
+        assertEquals(List.of(), TopN.select(items, 0, Comparator.<Integer>naturalOrder()));
+    }
+}
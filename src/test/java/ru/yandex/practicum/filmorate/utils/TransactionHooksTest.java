@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionHooksTest {
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void shouldRunImmediatelyWithoutTransaction() {
+        TransactionHooks.afterCommit(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void shouldRunOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionHooks.afterCommit(runs::incrementAndGet);
+            assertEquals(0, runs.get());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals(1, runs.get());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldNotRunAfterRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TransactionHooks.afterCommit(runs::incrementAndGet);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, runs.get());
+    }
+}